@@ -2,15 +2,17 @@ package com.waterball.lms.controller;
 
 import com.waterball.lms.model.dto.AuthResponse;
 import com.waterball.lms.model.dto.LoginRequest;
+import com.waterball.lms.model.dto.RefreshTokenRequest;
 import com.waterball.lms.model.dto.RegisterRequest;
 import com.waterball.lms.model.dto.UserDTO;
+import com.waterball.lms.security.AuthenticatedUser;
 import com.waterball.lms.service.AuthService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -35,11 +37,24 @@ public class AuthController {
         return ResponseEntity.ok(response);
     }
 
+    @PostMapping("/refresh")
+    @Operation(summary = "換發 Token", description = "以 refresh token 換發新的 access token 與 refresh token (舊的 refresh token 失效)")
+    public ResponseEntity<AuthResponse> refresh(@Valid @RequestBody RefreshTokenRequest request) {
+        AuthResponse response = authService.refresh(request);
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/logout")
+    @Operation(summary = "登出", description = "撤銷 refresh token 所屬的登入 session, 其 access token 同時失效")
+    public ResponseEntity<Void> logout(@Valid @RequestBody RefreshTokenRequest request) {
+        authService.logout(request);
+        return ResponseEntity.noContent().build();
+    }
+
     @GetMapping("/me")
     @Operation(summary = "取得當前用戶資訊", description = "需要 JWT Token")
-    public ResponseEntity<UserDTO> getCurrentUser(Authentication authentication) {
-        String email = authentication.getName();
-        UserDTO user = authService.getCurrentUser(email);
+    public ResponseEntity<UserDTO> getCurrentUser(@AuthenticationPrincipal AuthenticatedUser principal) {
+        UserDTO user = authService.getCurrentUser(principal.id());
         return ResponseEntity.ok(user);
     }
 }
@@ -1,16 +1,30 @@
 package com.waterball.lms.controller;
 
 import com.waterball.lms.model.dto.CourseDTO;
+import com.waterball.lms.model.dto.CoursePlayerDTO;
+import com.waterball.lms.model.dto.CursorPage;
 import com.waterball.lms.model.dto.LessonDTO;
+import com.waterball.lms.model.entity.LessonContentCodec;
+import com.waterball.lms.security.AuthenticatedUser;
+import com.waterball.lms.service.CatalogResponseCache;
 import com.waterball.lms.service.CourseService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/courses")
@@ -19,42 +33,229 @@ import java.util.List;
 public class CourseController {
 
     private final CourseService courseService;
+    private final CatalogResponseCache catalogResponseCache;
 
     @GetMapping
-    @Operation(summary = "取得所有課程列表", description = "公開 API - 所有人都可以瀏覽課程列表")
-    public ResponseEntity<List<CourseDTO>> getAllCourses(Authentication authentication) {
-        String email = authentication != null ? authentication.getName() : null;
-        List<CourseDTO> courses = courseService.getAllCourses(email);
-        return ResponseEntity.ok(courses);
+    @Operation(summary = "取得所有課程列表",
+            description = "公開 API - 所有人都可以瀏覽課程列表, 支援 If-None-Match; "
+                    + "帶 limit/cursor 時分頁, 下一頁 token 放在 X-Next-Cursor header")
+    public ResponseEntity<List<CourseDTO>> getAllCourses(
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @AuthenticationPrincipal AuthenticatedUser principal,
+            HttpServletResponse response) throws IOException {
+        String email = principal != null ? principal.email() : null;
+        String etag = courseService.catalogETag();
+
+        if (limit != null || cursor != null) {
+            return conditionalPage(etag, ifNoneMatch, CacheControl.noCache(),
+                    () -> courseService.getCoursesPage(cursor, limit));
+        }
+
+        // 訪客: 直接寫入此 catalog 版本預先序列化的 bytes
+        if (email == null && !matches(ifNoneMatch, etag)) {
+            writeCached(catalogResponseCache.courses(), etag, acceptEncoding, response);
+            return null;
+        }
+        return conditional(etag, ifNoneMatch, CacheControl.noCache(),
+                () -> courseService.getAllCourses(email));
     }
 
     @GetMapping("/{courseId}")
-    @Operation(summary = "取得課程詳情", description = "公開 API - 未購買用戶無法看到影片資訊")
+    @Operation(summary = "取得課程詳情", description = "公開 API - 未購買用戶無法看到影片資訊, 支援 If-None-Match")
     public ResponseEntity<CourseDTO> getCourse(
             @PathVariable Long courseId,
-            Authentication authentication) {
-        String email = authentication != null ? authentication.getName() : null;
-        CourseDTO course = courseService.getCourse(courseId, email);
-        return ResponseEntity.ok(course);
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @AuthenticationPrincipal AuthenticatedUser principal,
+            HttpServletResponse response) throws IOException {
+        String email = principal != null ? principal.email() : null;
+        String etag = courseService.catalogETag();
+
+        if (email == null && !matches(ifNoneMatch, etag)) {
+            Optional<CatalogResponseCache.Encoded> cached = catalogResponseCache.course(courseId);
+            if (cached.isPresent()) {
+                writeCached(cached.get(), etag, acceptEncoding, response);
+                return null;
+            }
+        }
+        // 課程不存在時由 service 丟出 "Course not found"
+        return conditional(etag, ifNoneMatch, CacheControl.noCache(),
+                () -> courseService.getCourse(courseId, email));
     }
 
     @GetMapping("/{courseId}/lessons")
-    @Operation(summary = "取得課程的所有單元", description = "公開 API - 未購買用戶無法看到影片資訊")
+    @Operation(summary = "取得課程的所有單元", description = "公開 API - 未購買用戶無法看到影片資訊, 支援 If-None-Match")
     public ResponseEntity<List<LessonDTO>> getCourseLessons(
             @PathVariable Long courseId,
-            Authentication authentication) {
-        String email = authentication != null ? authentication.getName() : null;
-        List<LessonDTO> lessons = courseService.getCourseLessons(courseId, email);
-        return ResponseEntity.ok(lessons);
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @AuthenticationPrincipal AuthenticatedUser principal) {
+        Long userId = principal != null ? principal.id() : null;
+        return conditional(courseService.lessonsETag(userId), ifNoneMatch, perUserCacheControl(),
+                () -> courseService.getCourseLessons(courseId, userId));
+    }
+
+    @GetMapping("/{courseId}/player")
+    @Operation(summary = "取得課程播放頁資料",
+            description = "公開 API - 一次回傳課程、單元 (含進度)、存取權限與當前用戶, 取代播放頁的多次呼叫")
+    public ResponseEntity<CoursePlayerDTO> getCoursePlayer(
+            @PathVariable Long courseId,
+            @AuthenticationPrincipal AuthenticatedUser principal) {
+        Long userId = principal != null ? principal.id() : null;
+        return ResponseEntity.ok()
+                .cacheControl(perUserCacheControl())
+                .body(courseService.getCoursePlayer(courseId, userId));
     }
 
     @GetMapping("/lessons/{lessonId}")
-    @Operation(summary = "取得單元詳情", description = "公開 API - 未購買用戶無法看到影片資訊")
+    @Operation(summary = "取得單元詳情", description = "公開 API - 未購買用戶無法看到影片資訊, 支援 If-None-Match")
     public ResponseEntity<LessonDTO> getLesson(
             @PathVariable Long lessonId,
-            Authentication authentication) {
-        String email = authentication != null ? authentication.getName() : null;
-        LessonDTO lesson = courseService.getLesson(lessonId, email);
-        return ResponseEntity.ok(lesson);
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @AuthenticationPrincipal AuthenticatedUser principal) {
+        Long userId = principal != null ? principal.id() : null;
+        return conditional(courseService.lessonsETag(userId), ifNoneMatch, perUserCacheControl(),
+                () -> courseService.getLesson(lessonId, userId));
+    }
+
+    @GetMapping(value = "/lessons/{lessonId}/content", produces = "text/markdown;charset=UTF-8")
+    @Operation(summary = "取得單元文章內容",
+            description = "公開 API - 回傳原始文章內容; 客戶端接受 gzip 時直接回傳儲存的壓縮內容, 支援 If-None-Match")
+    public ResponseEntity<byte[]> getLessonContent(
+            @PathVariable Long lessonId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        boolean gzipAccepted = acceptsGzip(acceptEncoding);
+        String catalogETag = courseService.catalogETag();
+        // 壓縮與未壓縮為不同的 representation, 使用不同的 strong ETag
+        String etag = gzipAccepted
+                ? catalogETag.substring(0, catalogETag.length() - 1) + "-gz\""
+                : catalogETag;
+        if (matches(ifNoneMatch, etag)) {
+            return notModified(etag, CacheControl.noCache());
+        }
+
+        byte[] gzip = courseService.getLessonContentGzip(lessonId);
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (gzipAccepted) {
+            return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(gzip);
+        }
+        // 不支援 gzip 的客戶端才解壓縮
+        return builder.body(LessonContentCodec.decompress(gzip).getBytes(StandardCharsets.UTF_8));
+    }
+
+    // 單元回應包含用戶進度, 不可由共用快取保存
+    private static CacheControl perUserCacheControl() {
+        return CacheControl.noCache().cachePrivate();
+    }
+
+    /**
+     * If-None-Match 符合目前 ETag 時直接回傳 304, 不呼叫 service (不查詢資料庫)
+     */
+    private static <T> ResponseEntity<T> conditional(String etag, String ifNoneMatch,
+                                                     CacheControl cacheControl, Supplier<T> body) {
+        if (matches(ifNoneMatch, etag)) {
+            return notModified(etag, cacheControl);
+        }
+        return ok(etag, cacheControl).body(body.get());
+    }
+
+    /**
+     * 分頁版本: body 為該頁的項目, 下一頁 token 放在 X-Next-Cursor header
+     */
+    private static <T> ResponseEntity<List<T>> conditionalPage(String etag, String ifNoneMatch,
+                                                               CacheControl cacheControl,
+                                                               Supplier<CursorPage<T>> page) {
+        if (matches(ifNoneMatch, etag)) {
+            return notModified(etag, cacheControl);
+        }
+        CursorPage<T> result = page.get();
+        ResponseEntity.BodyBuilder builder = ok(etag, cacheControl);
+        if (result.getNextCursor() != null) {
+            builder.header(CursorPage.NEXT_CURSOR_HEADER, result.getNextCursor());
+        }
+        return builder.body(result.getItems());
+    }
+
+    private static <T> ResponseEntity<T> notModified(String etag, CacheControl cacheControl) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .varyBy(HttpHeaders.AUTHORIZATION)
+                .build();
+    }
+
+    private static ResponseEntity.BodyBuilder ok(String etag, CacheControl cacheControl) {
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .varyBy(HttpHeaders.AUTHORIZATION);
+    }
+
+    /**
+     * 寫入預先序列化的 JSON, 客戶端接受 gzip 時直接送出壓縮後的 bytes
+     */
+    private static void writeCached(CatalogResponseCache.Encoded encoded, String etag,
+                                    String acceptEncoding, HttpServletResponse response) throws IOException {
+        boolean gzip = acceptsGzip(acceptEncoding);
+        byte[] body = gzip ? encoded.gzip() : encoded.identity();
+
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING + ", " + HttpHeaders.AUTHORIZATION);
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    // Accept-Encoding 包含 gzip 且 q 不為 0
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (!parts[0].trim().equalsIgnoreCase("gzip")) {
+                continue;
+            }
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        return Double.parseDouble(param.substring(2)) > 0;
+                    } catch (NumberFormatException e) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    // If-None-Match 使用 weak comparison (RFC 9110), 可包含多個 ETag 或 "*"
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
     }
 }
@@ -0,0 +1,55 @@
+package com.waterball.lms.controller;
+
+import com.waterball.lms.model.dto.LeaderboardEntryDTO;
+import com.waterball.lms.security.AuthenticatedUser;
+import com.waterball.lms.service.LeaderboardService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Controller for the experience leaderboard
+ */
+@RestController
+@RequestMapping("/api/leaderboard")
+@RequiredArgsConstructor
+@Tag(name = "Leaderboard", description = "經驗值排行榜 API")
+public class LeaderboardController {
+
+    private final LeaderboardService leaderboardService;
+
+    /**
+     * Get top N users
+     */
+    @GetMapping("/top")
+    @Operation(summary = "排行榜前 N 名", description = "依經驗值排序, 同分同名次")
+    public ResponseEntity<List<LeaderboardEntryDTO>> getTop(
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(leaderboardService.getTop(limit));
+    }
+
+    /**
+     * Get current user's rank
+     */
+    @GetMapping("/me")
+    @Operation(summary = "我的名次", description = "取得當前用戶的排行名次")
+    public ResponseEntity<LeaderboardEntryDTO> getMyRank(@AuthenticationPrincipal AuthenticatedUser principal) {
+        return ResponseEntity.ok(leaderboardService.getRank(principal.id()));
+    }
+
+    /**
+     * Get users ranked around the current user
+     */
+    @GetMapping("/around-me")
+    @Operation(summary = "我附近的排名", description = "取得當前用戶前後各 range 名的排行")
+    public ResponseEntity<List<LeaderboardEntryDTO>> getAroundMe(
+            @RequestParam(defaultValue = "5") int range,
+            @AuthenticationPrincipal AuthenticatedUser principal) {
+        return ResponseEntity.ok(leaderboardService.getAround(principal.id(), range));
+    }
+}
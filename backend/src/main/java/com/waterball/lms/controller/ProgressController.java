@@ -1,14 +1,16 @@
 package com.waterball.lms.controller;
 
+import com.waterball.lms.model.dto.ProgressBatchRequest;
 import com.waterball.lms.model.dto.ProgressSubmitRequest;
 import com.waterball.lms.model.dto.ProgressUpdateRequest;
+import com.waterball.lms.security.AuthenticatedUser;
 import com.waterball.lms.service.ProgressService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Map;
@@ -25,9 +27,17 @@ public class ProgressController {
     @Operation(summary = "更新學習進度", description = "每 10 秒自動儲存影片播放進度")
     public ResponseEntity<Map<String, Object>> updateProgress(
             @Valid @RequestBody ProgressUpdateRequest request,
-            Authentication authentication) {
-        String email = authentication.getName();
-        Map<String, Object> result = progressService.updateProgress(email, request);
+            @AuthenticationPrincipal AuthenticatedUser principal) {
+        Map<String, Object> result = progressService.updateProgress(principal.id(), request);
+        return ResponseEntity.ok(result);
+    }
+
+    @PostMapping("/batch")
+    @Operation(summary = "批次更新學習進度", description = "離線時緩存的多筆進度在重新連線後一次送出")
+    public ResponseEntity<Map<String, Object>> updateProgressBatch(
+            @Valid @RequestBody ProgressBatchRequest request,
+            @AuthenticationPrincipal AuthenticatedUser principal) {
+        Map<String, Object> result = progressService.updateProgressBatch(principal.id(), request);
         return ResponseEntity.ok(result);
     }
 
@@ -35,9 +45,8 @@ public class ProgressController {
     @Operation(summary = "交付單元", description = "完成單元後點擊小圈圈,獲得經驗值")
     public ResponseEntity<Map<String, Object>> submitLesson(
             @Valid @RequestBody ProgressSubmitRequest request,
-            Authentication authentication) {
-        String email = authentication.getName();
-        Map<String, Object> result = progressService.submitLesson(email, request);
+            @AuthenticationPrincipal AuthenticatedUser principal) {
+        Map<String, Object> result = progressService.submitLesson(principal.id(), request);
         return ResponseEntity.ok(result);
     }
 }
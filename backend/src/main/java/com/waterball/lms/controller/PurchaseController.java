@@ -1,15 +1,15 @@
 package com.waterball.lms.controller;
 
+import com.waterball.lms.model.dto.CursorPage;
 import com.waterball.lms.model.dto.PurchaseDTO;
 import com.waterball.lms.model.dto.PurchaseRequest;
-import com.waterball.lms.model.entity.User;
-import com.waterball.lms.repository.UserRepository;
+import com.waterball.lms.security.AuthenticatedUser;
 import com.waterball.lms.service.PurchaseService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -25,7 +25,6 @@ import java.util.Map;
 public class PurchaseController {
 
     private final PurchaseService purchaseService;
-    private final UserRepository userRepository;
 
     /**
      * Purchase a course
@@ -35,9 +34,8 @@ public class PurchaseController {
     public ResponseEntity<PurchaseDTO> purchaseCourse(
             @PathVariable Long courseId,
             @RequestBody(required = false) PurchaseRequest request,
-            Authentication authentication) {
-        String email = authentication.getName();
-        PurchaseDTO purchase = purchaseService.purchaseCourse(email, courseId);
+            @AuthenticationPrincipal AuthenticatedUser principal) {
+        PurchaseDTO purchase = purchaseService.purchaseCourse(principal.id(), courseId);
         return ResponseEntity.ok(purchase);
     }
 
@@ -45,11 +43,21 @@ public class PurchaseController {
      * Get my purchase history
      */
     @GetMapping("/my-purchases")
-    @Operation(summary = "我的購買記錄", description = "取得當前用戶的所有購買記錄")
+    @Operation(summary = "我的購買記錄",
+            description = "取得當前用戶的購買記錄 (新到舊); 帶 limit/cursor 時分頁, 下一頁 token 放在 X-Next-Cursor header")
     public ResponseEntity<List<PurchaseDTO>> getMyPurchases(
-            Authentication authentication) {
-        String email = authentication.getName();
-        List<PurchaseDTO> purchases = purchaseService.getMyPurchases(email);
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
+            @AuthenticationPrincipal AuthenticatedUser principal) {
+        if (limit != null || cursor != null) {
+            CursorPage<PurchaseDTO> page = purchaseService.getMyPurchasesPage(principal.id(), cursor, limit);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.getNextCursor() != null) {
+                response.header(CursorPage.NEXT_CURSOR_HEADER, page.getNextCursor());
+            }
+            return response.body(page.getItems());
+        }
+        List<PurchaseDTO> purchases = purchaseService.getMyPurchases(principal.id());
         return ResponseEntity.ok(purchases);
     }
 
@@ -60,15 +68,23 @@ public class PurchaseController {
     @Operation(summary = "檢查購買狀態", description = "檢查是否已購買指定課程")
     public ResponseEntity<Map<String, Boolean>> checkPurchase(
             @PathVariable Long courseId,
-            Authentication authentication) {
-        String email = authentication.getName();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
-
-        boolean purchased = purchaseService.hasPurchased(user.getId(), courseId);
+            @AuthenticationPrincipal AuthenticatedUser principal) {
+        boolean purchased = purchaseService.hasPurchased(principal.id(), courseId);
         return ResponseEntity.ok(Map.of("purchased", purchased));
     }
 
+    /**
+     * Check access to several courses at once
+     */
+    @GetMapping("/access")
+    @Operation(summary = "批次檢查存取權限",
+            description = "一次檢查多門課程是否可存取 (courseIds=1,2,3, 最多 100 筆), 回傳 courseId → hasAccess")
+    public ResponseEntity<Map<Long, Boolean>> checkAccessBulk(
+            @RequestParam List<Long> courseIds,
+            @AuthenticationPrincipal AuthenticatedUser principal) {
+        return ResponseEntity.ok(purchaseService.getAccess(principal.id(), courseIds));
+    }
+
     /**
      * Check if user has access to a course
      */
@@ -76,12 +92,8 @@ public class PurchaseController {
     @Operation(summary = "檢查存取權限", description = "檢查是否可存取指定課程 (免費課程或已購買)")
     public ResponseEntity<Map<String, Boolean>> checkAccess(
             @PathVariable Long courseId,
-            Authentication authentication) {
-        String email = authentication.getName();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
-
-        boolean hasAccess = purchaseService.hasAccess(user.getId(), courseId);
+            @AuthenticationPrincipal AuthenticatedUser principal) {
+        boolean hasAccess = purchaseService.hasAccess(principal.id(), courseId);
         return ResponseEntity.ok(Map.of("hasAccess", hasAccess));
     }
 }
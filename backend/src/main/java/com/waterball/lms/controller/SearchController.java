@@ -0,0 +1,47 @@
+package com.waterball.lms.controller;
+
+import com.waterball.lms.model.dto.SearchResultDTO;
+import com.waterball.lms.service.SearchService;
+import com.waterball.lms.service.TypeaheadService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Controller for course and lesson search
+ */
+@RestController
+@RequestMapping("/api/search")
+@RequiredArgsConstructor
+@Tag(name = "Search", description = "課程與單元搜尋 API")
+public class SearchController {
+
+    private final SearchService searchService;
+    private final TypeaheadService typeaheadService;
+
+    /**
+     * Full-text search over published courses and lessons
+     */
+    @GetMapping
+    @Operation(summary = "搜尋課程與單元", description = "公開 API - 搜尋標題、描述與內文, 依相關度排序 (中文以兩字詞比對)")
+    public ResponseEntity<List<SearchResultDTO>> search(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(searchService.search(q, limit));
+    }
+
+    /**
+     * Title autocomplete (prefix match on course and lesson titles)
+     */
+    @GetMapping("/suggest")
+    @Operation(summary = "標題自動完成", description = "公開 API - 依前綴比對課程與單元標題 (整個標題或任一單字開頭)")
+    public ResponseEntity<List<SearchResultDTO>> suggest(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "8") int limit) {
+        return ResponseEntity.ok(typeaheadService.suggest(q, limit));
+    }
+}
@@ -0,0 +1,19 @@
+package com.waterball.lms.exception;
+
+/**
+ * Exception thrown when a client exceeds a rate limit (e.g. login attempts per email)
+ * Mapped to 429 Too Many Requests with a Retry-After header
+ */
+public class RateLimitExceededException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public RateLimitExceededException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
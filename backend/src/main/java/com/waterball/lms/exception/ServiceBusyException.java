@@ -0,0 +1,19 @@
+package com.waterball.lms.exception;
+
+/**
+ * Exception thrown when a bounded resource (e.g. the password hashing executor) is saturated
+ * Mapped to 503 Service Unavailable with a Retry-After header
+ */
+public class ServiceBusyException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public ServiceBusyException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
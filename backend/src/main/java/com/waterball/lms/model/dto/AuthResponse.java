@@ -13,12 +13,19 @@ public class AuthResponse {
 
     private String accessToken;
     private String tokenType = "Bearer";
+    /**
+     * access token 有效秒數, 到期前以 refreshToken 換發
+     */
+    private long expiresIn;
+    private String refreshToken;
     private UserDTO user;
 
-    public static AuthResponse of(String accessToken, UserDTO user) {
+    public static AuthResponse of(String accessToken, long expiresIn, String refreshToken, UserDTO user) {
         return AuthResponse.builder()
                 .accessToken(accessToken)
                 .tokenType("Bearer")
+                .expiresIn(expiresIn)
+                .refreshToken(refreshToken)
                 .user(user)
                 .build();
     }
@@ -0,0 +1,28 @@
+package com.waterball.lms.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Everything the course player page needs in one response
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CoursePlayerDTO {
+
+    private CourseDTO course;
+
+    // 已發布單元 (含用戶進度; 無權限時不含影片資訊)
+    private List<LessonDTO> lessons;
+
+    private Boolean hasAccess;
+
+    // 訪客時為 null
+    private UserDTO user;
+}
@@ -0,0 +1,23 @@
+package com.waterball.lms.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for a single leaderboard row
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaderboardEntryDTO {
+
+    private Long rank;
+    private Long userId;
+    private String displayName;
+    private String avatarUrl;
+    private Integer level;
+    private Integer experience;
+}
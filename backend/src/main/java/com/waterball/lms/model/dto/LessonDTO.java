@@ -7,7 +7,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class LessonDTO {
@@ -19,7 +19,7 @@ public class LessonDTO {
     private String type;
     private String videoUrl;
     private Integer videoDuration;
-    private String content;
+    // 文章內容不放在 JSON 中 (每次讀取都要解壓縮), 由 GET /api/courses/lessons/{lessonId}/content 以 gzip 直接回傳
     private Integer displayOrder;
     private Integer experienceReward;
 
@@ -42,7 +42,6 @@ public class LessonDTO {
                 .type(lesson.getType().name())
                 .videoUrl(includeVideoInfo ? lesson.getVideoUrl() : null)
                 .videoDuration(includeVideoInfo ? lesson.getVideoDuration() : null)
-                .content(lesson.getContent())
                 .displayOrder(lesson.getDisplayOrder())
                 .experienceReward(lesson.getExperienceReward())
                 .build();
@@ -0,0 +1,23 @@
+package com.waterball.lms.model.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Request DTO for replaying buffered progress heartbeats in one call
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProgressBatchRequest {
+
+    @NotEmpty(message = "Entries are required")
+    @Size(max = 500, message = "At most 500 entries per batch")
+    private List<@Valid ProgressUpdateRequest> entries;
+}
@@ -0,0 +1,22 @@
+package com.waterball.lms.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for a single search hit (course or lesson)
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchResultDTO {
+
+    private String type; // COURSE 或 LESSON
+    private Long id;
+    private Long courseId;
+    private String title;
+    private Double score;
+}
@@ -0,0 +1,31 @@
+package com.waterball.lms.model.entity;
+
+import com.waterball.lms.model.event.CatalogChangedEvent;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener that turns Course/Lesson writes into {@link CatalogChangedEvent}s
+ * Hibernate 透過 Spring 的 BeanContainer 建立此 listener, 因此可以注入 Spring bean
+ */
+@Component
+@RequiredArgsConstructor
+public class CatalogEntityListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        if (entity instanceof Course course) {
+            eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Type.COURSE, course.getId()));
+        } else if (entity instanceof Lesson lesson) {
+            eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Type.LESSON, lesson.getId()));
+        }
+    }
+}
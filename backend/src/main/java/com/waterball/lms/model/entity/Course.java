@@ -2,12 +2,14 @@ package com.waterball.lms.model.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@EntityListeners(CatalogEntityListener.class)
 @Table(name = "courses")
 @Getter
 @Setter
@@ -17,7 +19,8 @@ import java.util.List;
 public class Course extends BaseEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "courses_id_seq")
+    @SequenceGenerator(name = "courses_id_seq", sequenceName = "courses_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -42,12 +45,20 @@ public class Course extends BaseEntity {
     @Builder.Default
     private BigDecimal price = BigDecimal.ZERO;
 
+    /**
+     * 已發布單元數, 由資料庫 trigger (trg_lessons_lesson_count) 維護, JPA 不寫入
+     */
+    @Column(name = "lesson_count", nullable = false, insertable = false, updatable = false)
+    @ColumnDefault("0")
+    @Builder.Default
+    private Integer lessonCount = 0;
+
     @OneToMany(mappedBy = "course", cascade = CascadeType.ALL, orphanRemoval = true)
     @Builder.Default
     private List<Lesson> lessons = new ArrayList<>();
 
-    // 計算課程總單元數
+    // 課程已發布單元數 (讀取 lesson_count, 不會初始化 lessons)
     public int getTotalLessons() {
-        return lessons.size();
+        return lessonCount != null ? lessonCount : 0;
     }
 }
@@ -20,7 +20,8 @@ import java.time.LocalDateTime;
 public class CoursePurchase extends BaseEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "course_purchases_id_seq")
+    @SequenceGenerator(name = "course_purchases_id_seq", sequenceName = "course_purchases_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
+@EntityListeners(CatalogEntityListener.class)
 @Table(name = "lessons")
 @Getter
 @Setter
@@ -13,7 +14,8 @@ import lombok.*;
 public class Lesson extends BaseEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "lessons_id_seq")
+    @SequenceGenerator(name = "lessons_id_seq", sequenceName = "lessons_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -36,8 +38,15 @@ public class Lesson extends BaseEntity {
     @Column(name = "video_duration")
     private Integer videoDuration; // 影片長度 (秒)
 
+    // 文章內容或其他內容, 以 gzip 壓縮後存入 content_gzip (見 getContent/setContent)
     @Column(columnDefinition = "TEXT")
-    private String content; // 文章內容或其他內容
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private String content; // 尚未壓縮的舊資料
+
+    @Column(name = "content_gzip")
+    @Setter(AccessLevel.NONE)
+    private byte[] contentGzip;
 
     @Column(name = "display_order", nullable = false)
     private Integer displayOrder = 0;
@@ -48,9 +57,34 @@ public class Lesson extends BaseEntity {
     @Column(name = "experience_reward", nullable = false)
     private Integer experienceReward = 200; // 完成後獲得的經驗值
 
+    /**
+     * 文章內容 (解壓縮後)
+     */
+    public String getContent() {
+        return contentGzip != null ? LessonContentCodec.decompress(contentGzip) : content;
+    }
+
+    /**
+     * 設定文章內容, 壓縮後存入 content_gzip
+     */
+    public void setContent(String content) {
+        this.contentGzip = LessonContentCodec.compress(content);
+        this.content = null;
+    }
+
     public enum LessonType {
         VIDEO,      // 影片
         ARTICLE,    // 文章
         QUIZ        // 問卷
     }
+
+    public static class LessonBuilder {
+
+        // builder 設定內容時同樣壓縮
+        public LessonBuilder content(String content) {
+            this.contentGzip = LessonContentCodec.compress(content);
+            this.content = null;
+            return this;
+        }
+    }
 }
@@ -15,7 +15,8 @@ import lombok.*;
 public class Progress extends BaseEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "progress_id_seq")
+    @SequenceGenerator(name = "progress_id_seq", sequenceName = "progress_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -41,22 +42,13 @@ public class Progress extends BaseEntity {
     @Column(name = "experience_gained", nullable = false)
     private Integer experienceGained = 0; // 已獲得的經驗值
 
-    // 更新進度
-    public void updateProgress(int position, int duration) {
-        this.lastPosition = position;
-        if (duration > 0) {
-            this.progressPercentage = Math.min(100, (position * 100) / duration);
-            this.isCompleted = this.progressPercentage >= 100;
-        }
-    }
+    // 進度只透過 ProgressRepository 的 SQL upsert 與條件式 UPDATE 寫入, entity 僅供讀取
 
-    // 交付單元並獲得經驗值
-    public boolean submit(int experienceReward) {
-        if (!isSubmitted && isCompleted) {
-            this.isSubmitted = true;
-            this.experienceGained = experienceReward;
-            return true;
+    // 依播放位置計算進度百分比 (0-100)
+    public static int calculatePercentage(int position, int duration) {
+        if (duration <= 0) {
+            return 0;
         }
-        return false;
+        return Math.min(100, (position * 100) / duration);
     }
 }
@@ -0,0 +1,56 @@
+package com.waterball.lms.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * RefreshToken entity represents one refresh token of a login session.
+ * Only the SHA-256 of the token is stored; a token can be used once and is then rotated.
+ */
+@Entity
+@Table(name = "refresh_tokens")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RefreshToken extends BaseEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "refresh_tokens_id_seq")
+    @SequenceGenerator(name = "refresh_tokens_id_seq", sequenceName = "refresh_tokens_id_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    /**
+     * Shared by all tokens rotated from the same login (sid claim of access tokens)
+     */
+    @Column(name = "session_id", nullable = false, length = 36)
+    private String sessionId;
+
+    /**
+     * Base64url SHA-256 of the token
+     */
+    @Column(name = "token_hash", nullable = false, unique = true, length = 64)
+    private String tokenHash;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    /**
+     * Set when the token was exchanged for a new one
+     */
+    @Column(name = "rotated_at")
+    private LocalDateTime rotatedAt;
+
+    /**
+     * Set when the whole session was revoked (logout or token reuse)
+     */
+    @Column(name = "revoked_at")
+    private LocalDateTime revokedAt;
+}
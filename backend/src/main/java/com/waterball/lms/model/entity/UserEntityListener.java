@@ -0,0 +1,25 @@
+package com.waterball.lms.model.entity;
+
+import com.waterball.lms.model.event.UserProfileChangedEvent;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener that turns User updates (role, profile) into {@link UserProfileChangedEvent}s
+ * 以原生 SQL 更新的欄位 (例如經驗值) 不會經過此 listener, 由呼叫端自行發布事件
+ */
+@Component
+@RequiredArgsConstructor
+public class UserEntityListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PostUpdate
+    @PostRemove
+    public void onChange(User user) {
+        eventPublisher.publishEvent(new UserProfileChangedEvent(user.getId()));
+    }
+}
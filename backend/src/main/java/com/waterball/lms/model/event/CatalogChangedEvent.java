@@ -0,0 +1,16 @@
+package com.waterball.lms.model.event;
+
+/**
+ * Published when a course or lesson is inserted, updated or deleted.
+ * Listeners use it to rebuild in-memory catalog structures after the transaction commits.
+ *
+ * @param type 變更的 entity 類型
+ * @param id   變更的 entity ID
+ */
+public record CatalogChangedEvent(Type type, Long id) {
+
+    public enum Type {
+        COURSE,
+        LESSON
+    }
+}
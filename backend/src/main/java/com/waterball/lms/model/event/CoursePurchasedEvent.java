@@ -0,0 +1,11 @@
+package com.waterball.lms.model.event;
+
+/**
+ * Published when a user purchases a course.
+ * Listeners use it to invalidate cached entitlements after the transaction commits.
+ *
+ * @param userId   購買的用戶 ID
+ * @param courseId 購買的課程 ID
+ */
+public record CoursePurchasedEvent(Long userId, Long courseId) {
+}
@@ -0,0 +1,10 @@
+package com.waterball.lms.model.event;
+
+/**
+ * Published when a user's progress or course access changes.
+ * Listeners use it to invalidate per-user cached views (e.g. lesson list ETags) after the transaction commits.
+ *
+ * @param userId 用戶 ID
+ */
+public record UserContentChangedEvent(Long userId) {
+}
@@ -0,0 +1,10 @@
+package com.waterball.lms.model.event;
+
+/**
+ * Published when a user's profile fields (experience, level, role, display name, ...) change.
+ * Listeners use it to evict cached user profiles after the transaction commits.
+ *
+ * @param userId 用戶 ID
+ */
+public record UserProfileChangedEvent(Long userId) {
+}
@@ -1,9 +1,13 @@
 package com.waterball.lms.repository;
 
 import com.waterball.lms.model.entity.CoursePurchase;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -30,6 +34,45 @@ public interface CoursePurchaseRepository extends JpaRepository<CoursePurchase,
      */
     List<CoursePurchase> findByUserId(Long userId);
 
+    /**
+     * Find the ids of all courses purchased by a user
+     *
+     * @param userId User ID
+     * @return Purchased course IDs
+     */
+    @Query("SELECT p.course.id FROM CoursePurchase p WHERE p.user.id = :userId")
+    List<Long> findCourseIdsByUserId(@Param("userId") Long userId);
+
+    /**
+     * First page of a user's purchases, newest first (keyset pagination)
+     *
+     * @param userId   User ID
+     * @param pageable Page size only (always page 0, no OFFSET)
+     * @return Purchases ordered by purchase_date DESC, id DESC
+     */
+    @Query("SELECT p FROM CoursePurchase p JOIN FETCH p.course "
+            + "WHERE p.user.id = :userId "
+            + "ORDER BY p.purchaseDate DESC, p.id DESC")
+    List<CoursePurchase> findFirstPageByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    /**
+     * Purchases after the given (purchaseDate, id) key, newest first (keyset pagination)
+     *
+     * @param userId       User ID
+     * @param purchaseDate Purchase date of the last item on the previous page
+     * @param id           ID of the last item on the previous page
+     * @param pageable     Page size only (always page 0, no OFFSET)
+     * @return Purchases ordered by purchase_date DESC, id DESC
+     */
+    @Query("SELECT p FROM CoursePurchase p JOIN FETCH p.course "
+            + "WHERE p.user.id = :userId "
+            + "AND (p.purchaseDate < :purchaseDate OR (p.purchaseDate = :purchaseDate AND p.id < :id)) "
+            + "ORDER BY p.purchaseDate DESC, p.id DESC")
+    List<CoursePurchase> findPageByUserIdAfter(@Param("userId") Long userId,
+                                               @Param("purchaseDate") LocalDateTime purchaseDate,
+                                               @Param("id") Long id,
+                                               Pageable pageable);
+
     /**
      * Find a specific purchase record
      *
@@ -12,4 +12,6 @@ public interface CourseRepository extends JpaRepository<Course, Long> {
     List<Course> findAllByIsPublishedTrueOrderByDisplayOrderAsc();
 
     List<Course> findAllByIsPremiumAndIsPublishedTrueOrderByDisplayOrderAsc(Boolean isPremium);
+
+    List<Course> findAllByOrderByDisplayOrderAscIdAsc();
 }
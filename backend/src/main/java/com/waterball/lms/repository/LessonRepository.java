@@ -2,12 +2,63 @@ package com.waterball.lms.repository;
 
 import com.waterball.lms.model.entity.Lesson;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface LessonRepository extends JpaRepository<Lesson, Long> {
 
     List<Lesson> findByCourseIdAndIsPublishedTrueOrderByDisplayOrderAsc(Long courseId);
+
+    /**
+     * 已發布課程中的已發布單元 (包含 content), 用於建立搜尋索引
+     */
+    @Query("SELECT l FROM Lesson l JOIN FETCH l.course c WHERE l.isPublished = true AND c.isPublished = true")
+    List<Lesson> findAllSearchable();
+
+    /**
+     * 已發布單元的列表欄位 (不選取 description/content TEXT 欄位)
+     */
+    @Query("SELECT l.id AS id, l.course.id AS courseId, l.title AS title, l.type AS type, "
+            + "l.videoUrl AS videoUrl, l.videoDuration AS videoDuration, "
+            + "l.displayOrder AS displayOrder, l.experienceReward AS experienceReward "
+            + "FROM Lesson l WHERE l.isPublished = true ORDER BY l.displayOrder ASC, l.id ASC")
+    List<LessonSummary> findPublishedSummaries();
+
+    interface LessonSummary {
+        Long getId();
+
+        Long getCourseId();
+
+        String getTitle();
+
+        Lesson.LessonType getType();
+
+        String getVideoUrl();
+
+        Integer getVideoDuration();
+
+        Integer getDisplayOrder();
+
+        Integer getExperienceReward();
+    }
+
+    /**
+     * 只讀取單元的文章內容欄位
+     */
+    @Query("SELECT l.id AS id, l.contentGzip AS contentGzip, l.content AS content FROM Lesson l WHERE l.id = :id")
+    Optional<LessonContent> findContentById(@Param("id") Long id);
+
+    interface LessonContent {
+        Long getId();
+
+        byte[] getContentGzip();
+
+        // 尚未壓縮的舊資料
+        String getContent();
+    }
 }
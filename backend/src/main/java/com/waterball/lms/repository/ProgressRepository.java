@@ -2,17 +2,80 @@ package com.waterball.lms.repository;
 
 import com.waterball.lms.model.entity.Progress;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ProgressRepository extends JpaRepository<Progress, Long> {
+public interface ProgressRepository extends JpaRepository<Progress, Long>, ProgressRepositoryCustom {
 
     Optional<Progress> findByUserIdAndLessonId(Long userId, Long lessonId);
 
     List<Progress> findByUserId(Long userId);
 
     List<Progress> findByUserIdAndLessonCourseId(Long userId, Long courseId);
+
+    List<Progress> findByUserIdAndLessonIdIn(Long userId, Collection<Long> lessonIds);
+
+    /**
+     * 以單一 SQL 新增或更新進度 ({@link ProgressRepositoryCustom#UPSERT_SQL}) 並回傳結果
+     *
+     * @param userId   User ID
+     * @param lessonId Lesson ID
+     * @param position 當前播放位置 (秒)
+     * @param duration 影片總長度 (秒), 必須 > 0
+     * @return 更新後的進度狀態
+     */
+    @Query(value = UPSERT_SQL + """
+            RETURNING progress_percentage AS "progressPercentage",
+                      last_position AS "lastPosition",
+                      is_completed AS "isCompleted",
+                      is_submitted AS "isSubmitted"
+            """, nativeQuery = true)
+    ProgressState upsertProgress(@Param("userId") Long userId,
+                                 @Param("lessonId") Long lessonId,
+                                 @Param("position") int position,
+                                 @Param("duration") int duration);
+
+    /**
+     * 交付單元: 只有已完成且尚未交付的進度會被更新
+     * 以影響筆數判斷是否成功, 同時送出的交付請求只會有一筆成功
+     *
+     * @param userId           User ID
+     * @param lessonId         Lesson ID
+     * @param experienceReward 獲得的經驗值
+     * @return 更新筆數 (0 或 1)
+     */
+    @Modifying
+    @Query("""
+            UPDATE Progress p
+            SET p.isSubmitted = true,
+                p.experienceGained = :experienceReward,
+                p.updatedAt = CURRENT_TIMESTAMP
+            WHERE p.user.id = :userId
+              AND p.lesson.id = :lessonId
+              AND p.isCompleted = true
+              AND p.isSubmitted = false
+            """)
+    int submitIfCompleted(@Param("userId") Long userId,
+                          @Param("lessonId") Long lessonId,
+                          @Param("experienceReward") int experienceReward);
+
+    /**
+     * Projection of the progress columns returned by {@link #upsertProgress}
+     */
+    interface ProgressState {
+        Integer getProgressPercentage();
+
+        Integer getLastPosition();
+
+        Boolean getIsCompleted();
+
+        Boolean getIsSubmitted();
+    }
 }
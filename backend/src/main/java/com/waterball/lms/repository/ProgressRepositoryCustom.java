@@ -0,0 +1,46 @@
+package com.waterball.lms.repository;
+
+import java.util.Collection;
+
+/**
+ * Custom ProgressRepository operations that need plain JDBC
+ */
+public interface ProgressRepositoryCustom {
+
+    /**
+     * 進度 upsert (INSERT ... ON CONFLICT DO UPDATE), 單筆與批次寫入共用
+     * 進度百分比與完成狀態在 SQL 中計算, last_position 不會倒退, 已完成不會被取消
+     */
+    String UPSERT_SQL = """
+            INSERT INTO progress (user_id, lesson_id, progress_percentage, last_position,
+                                  is_completed, is_submitted, experience_gained, created_at, updated_at)
+            VALUES (:userId, :lessonId, LEAST(100, :position * 100 / :duration), :position,
+                    :position * 100 / :duration >= 100, false, 0, NOW(), NOW())
+            ON CONFLICT (user_id, lesson_id) DO UPDATE SET
+                last_position = GREATEST(progress.last_position, EXCLUDED.last_position),
+                progress_percentage = GREATEST(progress.progress_percentage,
+                        LEAST(100, GREATEST(progress.last_position, EXCLUDED.last_position) * 100 / :duration)),
+                is_completed = progress.is_completed
+                        OR GREATEST(progress.last_position, EXCLUDED.last_position) * 100 / :duration >= 100,
+                updated_at = NOW()
+            """;
+
+    /**
+     * 以 JDBC batch 一次送出多筆進度 upsert
+     * 語意與 {@link ProgressRepository#upsertProgress} 相同, 但不回傳結果
+     *
+     * @param entries 進度 (每個 (userId, lessonId) 只應出現一次)
+     */
+    void batchUpsertProgress(Collection<ProgressUpsert> entries);
+
+    /**
+     * 單筆進度 upsert 參數
+     *
+     * @param userId   User ID
+     * @param lessonId Lesson ID
+     * @param position 播放位置 (秒)
+     * @param duration 影片總長度 (秒), 必須 > 0
+     */
+    record ProgressUpsert(Long userId, Long lessonId, int position, int duration) {
+    }
+}
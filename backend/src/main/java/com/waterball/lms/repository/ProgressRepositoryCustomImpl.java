@@ -0,0 +1,31 @@
+package com.waterball.lms.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import java.util.Collection;
+
+@RequiredArgsConstructor
+public class ProgressRepositoryCustomImpl implements ProgressRepositoryCustom {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    public void batchUpsertProgress(Collection<ProgressUpsert> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        SqlParameterSource[] params = entries.stream()
+                .map(entry -> new MapSqlParameterSource()
+                        .addValue("userId", entry.userId())
+                        .addValue("lessonId", entry.lessonId())
+                        .addValue("position", entry.position())
+                        .addValue("duration", entry.duration()))
+                .toArray(SqlParameterSource[]::new);
+
+        jdbcTemplate.batchUpdate(UPSERT_SQL, params);
+    }
+}
@@ -0,0 +1,70 @@
+package com.waterball.lms.repository;
+
+import com.waterball.lms.model.entity.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository for RefreshToken entity
+ */
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+    /**
+     * Find a refresh token by its hash, together with its user
+     *
+     * @param tokenHash Base64url SHA-256 of the token
+     * @return Optional of refresh token
+     */
+    @Query("SELECT t FROM RefreshToken t JOIN FETCH t.user WHERE t.tokenHash = :tokenHash")
+    Optional<RefreshToken> findByTokenHash(@Param("tokenHash") String tokenHash);
+
+    /**
+     * Mark a token as rotated if it is still usable (conditional update, only one caller wins)
+     *
+     * @param id  Refresh token ID
+     * @param now Rotation time
+     * @return 1 if the token was rotated, 0 if it had already been rotated or revoked
+     */
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.rotatedAt = :now "
+            + "WHERE t.id = :id AND t.rotatedAt IS NULL AND t.revokedAt IS NULL")
+    int rotate(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    /**
+     * Revoke every token of a login session
+     *
+     * @param sessionId Session ID
+     * @param now       Revocation time
+     * @return Number of tokens revoked
+     */
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.revokedAt = :now WHERE t.sessionId = :sessionId AND t.revokedAt IS NULL")
+    int revokeSession(@Param("sessionId") String sessionId, @Param("now") LocalDateTime now);
+
+    /**
+     * Sessions revoked since the given time (access tokens of these sessions may still be unexpired)
+     *
+     * @param since Lower bound of revocation time
+     * @return Distinct session IDs
+     */
+    @Query("SELECT DISTINCT t.sessionId FROM RefreshToken t WHERE t.revokedAt >= :since")
+    List<String> findSessionIdsRevokedSince(@Param("since") LocalDateTime since);
+
+    /**
+     * Delete tokens that expired before the given time
+     *
+     * @param before Expiration cutoff
+     * @return Number of deleted tokens
+     */
+    @Modifying
+    @Query("DELETE FROM RefreshToken t WHERE t.expiresAt < :before")
+    int deleteExpiredBefore(@Param("before") LocalDateTime before);
+}
@@ -2,8 +2,11 @@ package com.waterball.lms.repository;
 
 import com.waterball.lms.model.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -12,4 +15,84 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
 
     boolean existsByEmail(String email);
+
+    /**
+     * 載入排行榜所需的欄位 (啟動時建立記憶體排行榜)
+     *
+     * @return 所有用戶的排行資料
+     */
+    @Query("SELECT u.id AS id, u.displayName AS displayName, u.avatarUrl AS avatarUrl, "
+            + "u.level AS level, u.experience AS experience FROM User u")
+    List<LeaderboardRow> findAllLeaderboardRows();
+
+    /**
+     * 載入單一用戶的排行資料 (經驗值或資料變更 commit 後更新排行榜)
+     *
+     * @param id User ID
+     * @return 排行資料, 用戶不存在時為 empty
+     */
+    @Query("SELECT u.id AS id, u.displayName AS displayName, u.avatarUrl AS avatarUrl, "
+            + "u.level AS level, u.experience AS experience FROM User u WHERE u.id = :id")
+    Optional<LeaderboardRow> findLeaderboardRowById(@Param("id") Long id);
+
+    /**
+     * 以單一 SQL 原子地增加經驗值並重新計算等級 (等級只升不降)
+     * 等級公式需與 ExperienceService.calculateLevel 一致: 每 1000 EXP 升 1 級, 最低 1 級
+     *
+     * @param userId User ID
+     * @param amount 增加的經驗值
+     * @return 更新後的用戶資料, 用戶不存在時為 empty
+     */
+    @Query(value = """
+            UPDATE users SET
+                experience = experience + :amount,
+                level = GREATEST(level, 1, (experience + :amount) / 1000 + 1),
+                updated_at = NOW()
+            WHERE id = :userId
+            RETURNING id,
+                      email,
+                      display_name AS "displayName",
+                      avatar_url AS "avatarUrl",
+                      role,
+                      level,
+                      experience,
+                      is_premium AS "isPremium"
+            """, nativeQuery = true)
+    Optional<UserSnapshot> incrementExperience(@Param("userId") Long userId, @Param("amount") int amount);
+
+    /**
+     * Projection of the user columns returned by {@link #findAllLeaderboardRows} and {@link #findLeaderboardRowById}
+     */
+    interface LeaderboardRow {
+        Long getId();
+
+        String getDisplayName();
+
+        String getAvatarUrl();
+
+        Integer getLevel();
+
+        Integer getExperience();
+    }
+
+    /**
+     * Projection of the user columns returned by {@link #incrementExperience}
+     */
+    interface UserSnapshot {
+        Long getId();
+
+        String getEmail();
+
+        String getDisplayName();
+
+        String getAvatarUrl();
+
+        String getRole();
+
+        Integer getLevel();
+
+        Integer getExperience();
+
+        Boolean getIsPremium();
+    }
 }
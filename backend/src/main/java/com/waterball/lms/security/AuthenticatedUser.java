@@ -0,0 +1,21 @@
+package com.waterball.lms.security;
+
+import java.security.Principal;
+
+/**
+ * Principal installed by {@link JwtAuthenticationFilter}
+ * <p>
+ * 用戶 ID 直接取自 JWT 的 uid claim, controller/service 不需要再以 email 查詢用戶。
+ * {@link #getName()} 回傳 email, 因此 {@code Authentication#getName()} 仍然是 email。
+ *
+ * @param id    用戶 ID
+ * @param email 用戶 email
+ * @param role  用戶角色
+ */
+public record AuthenticatedUser(Long id, String email, String role) implements Principal {
+
+    @Override
+    public String getName() {
+        return email;
+    }
+}
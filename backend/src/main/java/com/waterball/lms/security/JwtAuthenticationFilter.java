@@ -20,6 +20,7 @@ import java.util.List;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenProvider jwtTokenProvider;
+    private final TokenRevocationList tokenRevocationList;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -28,18 +29,22 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         String token = resolveToken(request);
 
-        if (token != null && jwtTokenProvider.validateToken(token)) {
-            String username = jwtTokenProvider.getUsername(token);
-            String role = jwtTokenProvider.getRole(token);
-
-            UsernamePasswordAuthenticationToken authentication =
-                    new UsernamePasswordAuthenticationToken(
-                            username,
-                            null,
-                            List.of(new SimpleGrantedAuthority("ROLE_" + role))
-                    );
-
-            SecurityContextHolder.getContext().setAuthentication(authentication);
+        if (token != null) {
+            // 沒有 uid 的舊版 token 視為未登入, 需要重新登入; 已撤銷 session 的 token 同樣視為未登入
+            jwtTokenProvider.verify(token)
+                    .filter(claims -> claims.userId() != null)
+                    .filter(claims -> !tokenRevocationList.isRevoked(claims.sessionId()))
+                    .ifPresent(claims -> {
+                        AuthenticatedUser principal = new AuthenticatedUser(claims.userId(), claims.username(), claims.role());
+                        UsernamePasswordAuthenticationToken authentication =
+                                new UsernamePasswordAuthenticationToken(
+                                        principal,
+                                        null,
+                                        List.of(new SimpleGrantedAuthority("ROLE_" + claims.role()))
+                                );
+
+                        SecurityContextHolder.getContext().setAuthentication(authentication);
+                    });
         }
 
         filterChain.doFilter(request, response);
@@ -1,6 +1,8 @@
 package com.waterball.lms.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import lombok.extern.slf4j.Slf4j;
@@ -9,63 +11,163 @@ import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
 
+/**
+ * 建立與驗證 JWT
+ * <p>
+ * 驗證使用預先建立的 parser, 簽章驗證與 claims 解析只做一次。
+ * 驗證成功的 claims 以 token 的 SHA-256 為 key 快取到 token 過期為止,
+ * 同一個 token 的後續請求不需要重新驗證簽章; 快取不保存原始 token。
+ * 快取分散在最多 {@value #MAX_STRIPES} 個 stripe, 每個 stripe 是各自加鎖的 LRU,
+ * 超過上限時 O(1) 淘汰最久未使用的 token, 請求路徑上不需要掃描整個快取。
+ * access token 只有數分鐘效期, 撤銷由 {@link TokenRevocationList} 依 sid claim 另外檢查 (不快取)。
+ */
 @Slf4j
 @Component
 public class JwtTokenProvider {
 
+    static final String USER_ID_CLAIM = "uid";
+    static final String SESSION_ID_CLAIM = "sid";
+    static final int MAX_STRIPES = 64;
+
     private final SecretKey secretKey;
     private final long validityInMilliseconds;
+    private final JwtParser parser;
+
+    private final Stripe[] stripes;
 
     public JwtTokenProvider(
             @Value("${jwt.secret}") String secret,
-            @Value("${jwt.expiration}") long validityInMilliseconds) {
+            @Value("${jwt.expiration}") long validityInMilliseconds,
+            @Value("${jwt.claims-cache.max-entries:10000}") int maxCachedTokens) {
         this.secretKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
         this.validityInMilliseconds = validityInMilliseconds;
+        this.parser = Jwts.parser().verifyWith(secretKey).build();
+        // stripe 數為 2 的次方且不超過上限筆數, 總筆數不會超過 maxCachedTokens
+        int stripeCount = Integer.highestOneBit(Math.max(1, Math.min(MAX_STRIPES, maxCachedTokens)));
+        int perStripe = Math.max(0, maxCachedTokens) / stripeCount;
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe(perStripe);
+        }
     }
 
-    public String createToken(String username, String role) {
+    /**
+     * 建立 access token
+     *
+     * @param userId    用戶 ID (uid claim)
+     * @param username  用戶 email (subject)
+     * @param role      用戶角色
+     * @param sessionId 登入 session (refresh token 的 session_id)
+     */
+    public String createToken(Long userId, String username, String role, String sessionId) {
         Date now = new Date();
         Date validity = new Date(now.getTime() + validityInMilliseconds);
 
         return Jwts.builder()
                 .subject(username)
+                .claim(USER_ID_CLAIM, userId)
                 .claim("role", role)
+                .claim(SESSION_ID_CLAIM, sessionId)
                 .issuedAt(now)
                 .expiration(validity)
                 .signWith(secretKey)
                 .compact();
     }
 
-    public boolean validateToken(String token) {
+    /**
+     * 驗證 token 並取出 claims
+     *
+     * @param token JWT
+     * @return claims, token 無效或已過期時為 empty
+     */
+    public Optional<TokenClaims> verify(String token) {
+        long now = System.currentTimeMillis();
+        String key = hash(token);
+        Stripe stripe = stripeFor(key);
+
+        synchronized (stripe) {
+            TokenClaims cached = stripe.claims.get(key);
+            if (cached != null) {
+                if (!cached.isExpired(now)) {
+                    return Optional.of(cached);
+                }
+                stripe.claims.remove(key);
+                return Optional.empty();
+            }
+        }
+
+        TokenClaims claims;
         try {
-            Jwts.parser()
-                    .verifyWith(secretKey)
-                    .build()
-                    .parseSignedClaims(token);
-            return true;
-        } catch (Exception e) {
+            Claims payload = parser.parseSignedClaims(token).getPayload();
+            Date expiration = payload.getExpiration();
+            claims = new TokenClaims(
+                    payload.get(USER_ID_CLAIM, Long.class),
+                    payload.getSubject(),
+                    payload.get("role", String.class),
+                    payload.get(SESSION_ID_CLAIM, String.class),
+                    expiration != null ? expiration.getTime() : now + validityInMilliseconds);
+        } catch (JwtException | IllegalArgumentException e) {
             log.error("Invalid JWT token: {}", e.getMessage());
-            return false;
+            return Optional.empty();
+        }
+
+        synchronized (stripe) {
+            stripe.claims.put(key, claims);
+        }
+        return Optional.of(claims);
+    }
+
+    /**
+     * access token 效期 (milliseconds)
+     */
+    public long getValidityInMilliseconds() {
+        return validityInMilliseconds;
+    }
+
+    int cachedTokenCount() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.claims.size();
+            }
         }
+        return size;
+    }
+
+    private Stripe stripeFor(String key) {
+        int h = key.hashCode();
+        return stripes[(h ^ (h >>> 16)) & (stripes.length - 1)];
     }
 
-    public String getUsername(String token) {
-        return Jwts.parser()
-                .verifyWith(secretKey)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload()
-                .getSubject();
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 
-    public String getRole(String token) {
-        return Jwts.parser()
-                .verifyWith(secretKey)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload()
-                .get("role", String.class);
+    private static final class Stripe {
+
+        // access-ordered, guarded by the stripe; 被淘汰的 token 下次請求重新驗證即可
+        private final LinkedHashMap<String, TokenClaims> claims;
+
+        Stripe(int maxEntries) {
+            this.claims = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, TokenClaims> eldest) {
+                    return size() > maxEntries;
+                }
+            };
+        }
     }
 }
@@ -0,0 +1,60 @@
+package com.waterball.lms.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.waterball.lms.exception.ErrorResponse;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * Per-IP rate limit for POST /api/auth/login and /api/auth/register
+ * 超過限制時在進入 controller 之前回傳 429 (不執行 BCrypt); 每個 email 的限制由 AuthService 檢查
+ */
+@Component
+@RequiredArgsConstructor
+public class LoginRateLimitFilter extends OncePerRequestFilter {
+
+    private static final Set<String> LIMITED_PATHS = Set.of("/api/auth/login", "/api/auth/register");
+
+    private final LoginRateLimiter loginRateLimiter;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod()) || !LIMITED_PATHS.contains(request.getServletPath());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        // 位於 reverse proxy 之後時需設定 server.forward-headers-strategy, remoteAddr 才是用戶端 IP
+        long retryAfter = loginRateLimiter.tryAcquireIp(request.getRemoteAddr());
+        if (retryAfter > 0) {
+            ErrorResponse error = ErrorResponse.builder()
+                    .timestamp(LocalDateTime.now())
+                    .status(HttpStatus.TOO_MANY_REQUESTS.value())
+                    .error(HttpStatus.TOO_MANY_REQUESTS.getReasonPhrase())
+                    .message("Too many attempts, please retry later")
+                    .path(request.getRequestURI())
+                    .build();
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(response.getOutputStream(), error);
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,195 @@
+package com.waterball.lms.security;
+
+import com.waterball.lms.exception.RateLimitExceededException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets for login/registration attempts, per client IP and per email
+ * <p>
+ * 每個 key 一個 token bucket: 容量為 capacity, 每分鐘補充 refillPerMinute 個 token。
+ * - IP: 每次登入/註冊請求消耗一個, 只用來擋大量灌請求; 預設容量 100、每分鐘補充 60,
+ *   同一個 NAT 後面的整間教室 (同一個來源 IP) 同時登入也不會被擋
+ * - email: 只有驗證失敗 (帳號不存在、密碼錯誤、email 已註冊) 才消耗, 成功登入不扣;
+ *   用完後在 BCrypt 之前拒絕, 直到補充出新的 token
+ * bucket 分散在 {@value #STRIPES} 個 stripe, 每個 stripe 各自加鎖並以 LRU 限制筆數,
+ * 大量不同 IP/email 的攻擊只會淘汰最久未使用的 bucket, 記憶體用量固定。
+ */
+@Component
+public class LoginRateLimiter {
+
+    static final int STRIPES = 64;
+
+    private final Limit ipLimit;
+    private final Limit emailLimit;
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final LongSupplier nanoTime;
+
+    public LoginRateLimiter(
+            @Value("${auth.rate-limit.ip.capacity:100}") int ipCapacity,
+            @Value("${auth.rate-limit.ip.refill-per-minute:60}") int ipRefillPerMinute,
+            @Value("${auth.rate-limit.email.capacity:5}") int emailCapacity,
+            @Value("${auth.rate-limit.email.refill-per-minute:5}") int emailRefillPerMinute,
+            @Value("${auth.rate-limit.max-entries:100000}") int maxEntries) {
+        this(new Limit(ipCapacity, ipRefillPerMinute), new Limit(emailCapacity, emailRefillPerMinute),
+                maxEntries, System::nanoTime);
+    }
+
+    LoginRateLimiter(Limit ipLimit, Limit emailLimit, int maxEntries, LongSupplier nanoTime) {
+        this.ipLimit = ipLimit;
+        this.emailLimit = emailLimit;
+        this.nanoTime = nanoTime;
+        int perStripe = Math.max(1, maxEntries / STRIPES);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(perStripe);
+        }
+    }
+
+    /**
+     * 消耗該 IP 的一個 token
+     *
+     * @return 0 表示允許; 否則為建議的重試等待秒數
+     */
+    public long tryAcquireIp(String ip) {
+        return tryAcquire("ip:" + ip, ipLimit);
+    }
+
+    /**
+     * 檢查該 email 是否還有失敗額度, 不消耗 token (在 BCrypt 之前呼叫)
+     *
+     * @throws RateLimitExceededException if the email has no tokens left
+     */
+    public void checkEmail(String email) {
+        if (email == null) {
+            return;
+        }
+        long retryAfter = peek(emailKey(email), emailLimit);
+        if (retryAfter > 0) {
+            throw new RateLimitExceededException("Too many attempts for this account, please retry later", retryAfter);
+        }
+    }
+
+    /**
+     * 驗證失敗時消耗該 email 的一個 token
+     */
+    public void recordEmailFailure(String email) {
+        if (email == null) {
+            return;
+        }
+        tryAcquire(emailKey(email), emailLimit);
+    }
+
+    int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.buckets.size();
+            }
+        }
+        return size;
+    }
+
+    private long peek(String key, Limit limit) {
+        Stripe stripe = stripeFor(key);
+        long now = nanoTime.getAsLong();
+        synchronized (stripe) {
+            Bucket bucket = stripe.buckets.get(key);
+            // 沒有失敗紀錄的 key 不建立 bucket
+            return bucket != null ? bucket.waitSeconds(limit, now) : 0;
+        }
+    }
+
+    private long tryAcquire(String key, Limit limit) {
+        Stripe stripe = stripeFor(key);
+        long now = nanoTime.getAsLong();
+        synchronized (stripe) {
+            Bucket bucket = stripe.buckets.get(key);
+            if (bucket == null) {
+                bucket = new Bucket(limit.capacity(), now);
+                stripe.buckets.put(key, bucket);
+            }
+            return bucket.tryConsume(limit, now);
+        }
+    }
+
+    private Stripe stripeFor(String key) {
+        return stripes[spread(key.hashCode()) & (STRIPES - 1)];
+    }
+
+    private static String emailKey(String email) {
+        return "email:" + email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Bucket 設定
+     *
+     * @param capacity        最多累積的 token 數 (允許的瞬間嘗試次數)
+     * @param refillPerMinute 每分鐘補充的 token 數
+     */
+    record Limit(int capacity, int refillPerMinute) {
+
+        double tokensPerNano() {
+            return refillPerMinute / 60_000_000_000.0;
+        }
+    }
+
+    private static final class Stripe {
+
+        private final LinkedHashMap<String, Bucket> buckets;
+
+        Stripe(int maxEntries) {
+            this.buckets = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Bucket> eldest) {
+                    return size() > maxEntries;
+                }
+            };
+        }
+    }
+
+    // guarded by the owning stripe
+    private static final class Bucket {
+
+        private double tokens;
+        private long refilledAt;
+
+        Bucket(double tokens, long now) {
+            this.tokens = tokens;
+            this.refilledAt = now;
+        }
+
+        long tryConsume(Limit limit, long now) {
+            long waitSeconds = waitSeconds(limit, now);
+            if (waitSeconds == 0) {
+                tokens -= 1;
+            }
+            return waitSeconds;
+        }
+
+        /**
+         * 補充 token 後回傳還要等待的秒數, 0 表示至少有一個 token
+         */
+        long waitSeconds(Limit limit, long now) {
+            double rate = limit.tokensPerNano();
+            tokens = Math.min(limit.capacity(), tokens + (now - refilledAt) * rate);
+            refilledAt = now;
+            if (tokens >= 1) {
+                return 0;
+            }
+            if (rate <= 0) {
+                return 60;
+            }
+            double waitNanos = (1 - tokens) / rate;
+            return Math.max(1, (long) Math.ceil(waitNanos / 1_000_000_000.0));
+        }
+    }
+}
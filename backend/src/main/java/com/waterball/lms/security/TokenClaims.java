@@ -0,0 +1,17 @@
+package com.waterball.lms.security;
+
+/**
+ * Claims extracted from a verified access token
+ *
+ * @param userId    用戶 ID (uid claim, 舊版 token 沒有此 claim 時為 null)
+ * @param username  用戶 email (subject)
+ * @param role      用戶角色
+ * @param sessionId 登入 session (sid claim, 對應 refresh_tokens.session_id; 舊版 token 為 null)
+ * @param expiresAt 過期時間 (epoch milliseconds)
+ */
+public record TokenClaims(Long userId, String username, String role, String sessionId, long expiresAt) {
+
+    boolean isExpired(long now) {
+        return now >= expiresAt;
+    }
+}
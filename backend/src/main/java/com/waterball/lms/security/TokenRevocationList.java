@@ -0,0 +1,167 @@
+package com.waterball.lms.security;
+
+import com.waterball.lms.repository.RefreshTokenRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * In-memory list of revoked login sessions, checked on every authenticated request
+ * <p>
+ * access token 只有數分鐘效期, session 被撤銷後只需記住到其 access token 全部過期為止 (revoke 時間 + access token 效期),
+ * 清單因此很小。查詢先經過 Bloom filter, 絕大多數未撤銷的 token 不需要查 map;
+ * Bloom filter 命中時再以精確的 map 確認, 不會誤判。啟動時由 refresh_tokens.revoked_at 重建,
+ * 定期移除已過期的項目並重建 Bloom filter。只涵蓋本機撤銷的 session, 多台部署時其他節點在重啟或 token 過期後才生效。
+ */
+@Slf4j
+@Component
+public class TokenRevocationList {
+
+    static final int BLOOM_BITS = 1 << 16;
+    static final int BLOOM_HASHES = 4;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final long accessTokenValidity;
+    private final LongSupplier clock;
+
+    private final ConcurrentHashMap<String, Long> revokedUntil = new ConcurrentHashMap<>();
+    private volatile BloomFilter bloom = new BloomFilter(BLOOM_BITS, BLOOM_HASHES);
+
+    @Autowired
+    public TokenRevocationList(RefreshTokenRepository refreshTokenRepository,
+                               @Value("${jwt.expiration}") long accessTokenValidity) {
+        this(refreshTokenRepository, accessTokenValidity, System::currentTimeMillis);
+    }
+
+    TokenRevocationList(RefreshTokenRepository refreshTokenRepository, long accessTokenValidity, LongSupplier clock) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.accessTokenValidity = accessTokenValidity;
+        this.clock = clock;
+    }
+
+    /**
+     * 該 session 的 access token 是否已被撤銷
+     *
+     * @param sessionId sid claim (null 時視為未撤銷)
+     */
+    public boolean isRevoked(String sessionId) {
+        if (sessionId == null || !bloom.mightContain(sessionId)) {
+            return false;
+        }
+        Long until = revokedUntil.get(sessionId);
+        return until != null && clock.getAsLong() < until;
+    }
+
+    /**
+     * 撤銷 session, 直到目前簽發的 access token 全部過期
+     */
+    public synchronized void revoke(String sessionId) {
+        revokedUntil.merge(sessionId, clock.getAsLong() + accessTokenValidity, Math::max);
+        bloom.add(sessionId);
+    }
+
+    /**
+     * 由資料庫重建: access token 效期內被撤銷的 session
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long now = clock.getAsLong();
+        LocalDateTime since = LocalDateTime.ofInstant(Instant.ofEpochMilli(now - accessTokenValidity), ZoneId.systemDefault());
+        List<String> sessionIds = refreshTokenRepository.findSessionIdsRevokedSince(since);
+        synchronized (this) {
+            // 保守地以現在時間起算, 不需要每個 session 的確切撤銷時間
+            sessionIds.forEach(sessionId -> revokedUntil.merge(sessionId, now + accessTokenValidity, Math::max));
+            rebuildBloom(now);
+        }
+        log.info("Token revocation list rebuilt: {} revoked sessions", revokedUntil.size());
+    }
+
+    /**
+     * 移除已過期的項目 (Bloom filter 無法刪除, 以剩餘項目重建)
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.purge-interval:300000}",
+            initialDelayString = "${jwt.revocation.purge-interval:300000}")
+    public synchronized void purge() {
+        rebuildBloom(clock.getAsLong());
+    }
+
+    int size() {
+        return revokedUntil.size();
+    }
+
+    // guarded by this
+    private void rebuildBloom(long now) {
+        revokedUntil.values().removeIf(until -> until <= now);
+        BloomFilter next = new BloomFilter(BLOOM_BITS, BLOOM_HASHES);
+        revokedUntil.keySet().forEach(next::add);
+        bloom = next;
+    }
+
+    /**
+     * Fixed-size Bloom filter over strings (double hashing of a 64-bit FNV-1a hash)
+     */
+    private static final class BloomFilter {
+
+        private final AtomicLongArray words;
+        private final int bits;
+        private final int hashes;
+
+        BloomFilter(int bits, int hashes) {
+            this.words = new AtomicLongArray(bits / Long.SIZE);
+            this.bits = bits;
+            this.hashes = hashes;
+        }
+
+        void add(String value) {
+            long hash = hash(value);
+            for (int i = 0; i < hashes; i++) {
+                int bit = index(hash, i);
+                long mask = 1L << bit;
+                int word = bit >>> 6;
+                long current;
+                do {
+                    current = words.get(word);
+                } while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask));
+            }
+        }
+
+        boolean mightContain(String value) {
+            long hash = hash(value);
+            for (int i = 0; i < hashes; i++) {
+                int bit = index(hash, i);
+                if ((words.get(bit >>> 6) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private int index(long hash, int i) {
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32) | 1;
+            return Math.floorMod(h1 + i * h2, bits);
+        }
+
+        private static long hash(String value) {
+            long hash = 0xcbf29ce484222325L;
+            for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+                hash ^= b & 0xff;
+                hash *= 0x100000001b3L;
+            }
+            return hash;
+        }
+    }
+}
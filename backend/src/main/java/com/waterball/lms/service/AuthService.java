@@ -2,15 +2,15 @@ package com.waterball.lms.service;
 
 import com.waterball.lms.model.dto.AuthResponse;
 import com.waterball.lms.model.dto.LoginRequest;
+import com.waterball.lms.model.dto.RefreshTokenRequest;
 import com.waterball.lms.model.dto.RegisterRequest;
 import com.waterball.lms.model.dto.UserDTO;
 import com.waterball.lms.model.entity.User;
 import com.waterball.lms.repository.UserRepository;
-import com.waterball.lms.security.JwtTokenProvider;
+import com.waterball.lms.security.LoginRateLimiter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 @Service
 @RequiredArgsConstructor
@@ -18,12 +18,20 @@ public class AuthService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
-    private final JwtTokenProvider jwtTokenProvider;
+    private final RefreshTokenService refreshTokenService;
+    private final LeaderboardService leaderboardService;
+    private final UserProfileCache userProfileCache;
+    private final LoginRateLimiter loginRateLimiter;
 
-    @Transactional
+    /**
+     * 不開啟交易: 雜湊密碼 (在 BoundedPasswordEncoder 的 thread pool 上等待) 期間不佔用資料庫連線
+     */
     public AuthResponse register(RegisterRequest request) {
+        loginRateLimiter.checkEmail(request.getEmail());
+
         // 檢查 email 是否已存在
         if (userRepository.existsByEmail(request.getEmail())) {
+            loginRateLimiter.recordEmailFailure(request.getEmail());
             throw new IllegalArgumentException("Email already exists");
         }
 
@@ -39,35 +47,49 @@ public class AuthService {
                 .build();
 
         user = userRepository.save(user);
+        leaderboardService.update(UserDTO.from(user));
 
-        // 生成 JWT Token
-        String token = jwtTokenProvider.createToken(user.getEmail(), user.getRole().name());
-
-        return AuthResponse.of(token, UserDTO.from(user));
+        // 生成 access token 與 refresh token
+        return refreshTokenService.issue(user);
     }
 
-    @Transactional(readOnly = true)
+    /**
+     * 不開啟交易: 驗證密碼期間不佔用資料庫連線
+     */
     public AuthResponse login(LoginRequest request) {
-        // 查找用戶
-        User user = userRepository.findByEmail(request.getEmail())
-                .orElseThrow(() -> new IllegalArgumentException("Invalid email or password"));
+        // 每個 email 的失敗次數限制, 在查詢用戶與 BCrypt 之前檢查; 只有驗證失敗才扣額度
+        loginRateLimiter.checkEmail(request.getEmail());
 
-        // 驗證密碼
-        if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
+        // 查找用戶並驗證密碼
+        User user = userRepository.findByEmail(request.getEmail()).orElse(null);
+        if (user == null || !passwordEncoder.matches(request.getPassword(), user.getPassword())) {
+            loginRateLimiter.recordEmailFailure(request.getEmail());
             throw new IllegalArgumentException("Invalid email or password");
         }
 
-        // 生成 JWT Token
-        String token = jwtTokenProvider.createToken(user.getEmail(), user.getRole().name());
+        // 生成 access token 與 refresh token
+        return refreshTokenService.issue(user);
+    }
+
+    /**
+     * 以 refresh token 換發 token (不需要驗證密碼)
+     */
+    public AuthResponse refresh(RefreshTokenRequest request) {
+        return refreshTokenService.refresh(request.getRefreshToken());
+    }
 
-        return AuthResponse.of(token, UserDTO.from(user));
+    /**
+     * 登出: 撤銷 refresh token 所屬的 session
+     */
+    public void logout(RefreshTokenRequest request) {
+        refreshTokenService.revoke(request.getRefreshToken());
     }
 
-    @Transactional(readOnly = true)
-    public UserDTO getCurrentUser(String email) {
-        User user = userRepository.findByEmail(email)
+    /**
+     * 取得當前用戶資料 (由 UserProfileCache 提供, 資料變更時立即失效)
+     */
+    public UserDTO getCurrentUser(Long userId) {
+        return userProfileCache.get(userId)
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
-
-        return UserDTO.from(user);
     }
 }
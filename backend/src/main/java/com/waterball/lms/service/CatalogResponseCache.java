@@ -0,0 +1,89 @@
+package com.waterball.lms.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Pre-serialized JSON responses for guest catalog requests
+ * <p>
+ * 訪客的課程列表/課程詳情回應只取決於 catalog 版本, 因此每個版本只序列化一次,
+ * 保存 UTF-8 與 gzip 兩種 bytes, 由 controller 直接寫入 response。
+ * catalog 版本變更時整組捨棄; 單一課程的回應在第一次請求時才建立。
+ */
+@Component
+@RequiredArgsConstructor
+public class CatalogResponseCache {
+
+    private final CourseCatalog courseCatalog;
+    private final ObjectMapper objectMapper;
+
+    private final AtomicReference<Entry> current = new AtomicReference<>();
+
+    /**
+     * 已發布課程列表
+     */
+    public Encoded courses() {
+        return entry().courses();
+    }
+
+    /**
+     * 課程詳情, 課程不存在時回傳 empty
+     */
+    public Optional<Encoded> course(Long courseId) {
+        Entry entry = entry();
+        return Optional.ofNullable(entry.coursesById().computeIfAbsent(courseId,
+                id -> entry.snapshot().course(id).map(this::encode).orElse(null)));
+    }
+
+    private Entry entry() {
+        CourseCatalog.Snapshot snapshot = courseCatalog.current();
+        Entry entry = current.get();
+        if (entry != null && entry.snapshot().version() >= snapshot.version()) {
+            return entry;
+        }
+        Entry next = new Entry(snapshot, encode(snapshot.courses()), new ConcurrentHashMap<>());
+        // 同時重建時保留版本較新的那一份
+        return current.accumulateAndGet(next,
+                (existing, candidate) -> existing != null
+                        && existing.snapshot().version() >= candidate.snapshot().version() ? existing : candidate);
+    }
+
+    private Encoded encode(Object value) {
+        try {
+            byte[] identity = objectMapper.writeValueAsBytes(value);
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(Math.max(64, identity.length / 4));
+            try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+                gzip.write(identity);
+            }
+            return new Encoded(identity, buffer.toByteArray());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize catalog response", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record Entry(CourseCatalog.Snapshot snapshot,
+                         Encoded courses,
+                         ConcurrentHashMap<Long, Encoded> coursesById) {
+    }
+
+    /**
+     * 預先編碼的 JSON 回應 (bytes 為共用陣列, 不可修改)
+     *
+     * @param identity UTF-8 JSON
+     * @param gzip     gzip 壓縮後的 JSON
+     */
+    public record Encoded(byte[] identity, byte[] gzip) {
+    }
+}
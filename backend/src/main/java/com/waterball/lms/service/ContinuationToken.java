@@ -0,0 +1,48 @@
+package com.waterball.lms.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque continuation token for keyset pagination
+ * <p>
+ * Token 為排序鍵 (例如 displayOrder 與 id) 以 '|' 串接後的 Base64URL 字串,
+ * 客戶端只需原樣帶回, 不應解析其內容。
+ */
+final class ContinuationToken {
+
+    private static final char SEPARATOR = '|';
+
+    private ContinuationToken() {
+    }
+
+    static String encode(Object... keys) {
+        StringBuilder raw = new StringBuilder();
+        for (int i = 0; i < keys.length; i++) {
+            if (i > 0) {
+                raw.append(SEPARATOR);
+            }
+            raw.append(keys[i]);
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解碼 token
+     *
+     * @throws IllegalArgumentException token 格式錯誤或鍵數量不符
+     */
+    static String[] decode(String token, int expectedKeys) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] keys = raw.split("\\|", -1);
+            if (keys.length != expectedKeys) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return keys;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.waterball.lms.service;
+
+import com.waterball.lms.model.dto.CourseDTO;
+import com.waterball.lms.model.dto.LessonDTO;
+import com.waterball.lms.model.entity.Course;
+import com.waterball.lms.model.event.CatalogChangedEvent;
+import com.waterball.lms.repository.CourseRepository;
+import com.waterball.lms.repository.LessonRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Immutable snapshot of the course catalog
+ * <p>
+ * 公開課程列表、課程詳情與單元列表都由記憶體中的 {@link Snapshot} 提供, 不需查詢資料庫。
+ * Course/Lesson 變更後 (交易 commit 時) 標記為過期, 下一次讀取時重建並以 AtomicReference 原子替換;
+ * 重建期間其他請求繼續使用舊的 snapshot。另外定期重建, 以涵蓋直接以 SQL 修改資料的情況。
+ */
+@Slf4j
+@Component
+public class CourseCatalog {
+
+    private final CourseRepository courseRepository;
+    private final LessonRepository lessonRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+    private final AtomicLong changeCount = new AtomicLong();
+    private final AtomicLong catalogEvents = new AtomicLong();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private long eventsAtLastBuild; // guarded by rebuildLock
+
+    public CourseCatalog(CourseRepository courseRepository,
+                         LessonRepository lessonRepository,
+                         PlatformTransactionManager transactionManager) {
+        this.courseRepository = courseRepository;
+        this.lessonRepository = lessonRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * 取得目前的 catalog snapshot, 過期時重建
+     */
+    public Snapshot current() {
+        Snapshot current = snapshot.get();
+        if (current != null && current.changeCount() == changeCount.get()) {
+            return current;
+        }
+
+        // 已有舊 snapshot 且其他執行緒正在重建時, 直接回傳舊的
+        if (current != null && !rebuildLock.tryLock()) {
+            return current;
+        }
+        if (current == null) {
+            rebuildLock.lock();
+        }
+        try {
+            current = snapshot.get();
+            if (current == null || current.changeCount() != changeCount.get()) {
+                current = rebuild();
+            }
+            return current;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        current();
+    }
+
+    /**
+     * Course/Lesson 變更 commit 後標記 snapshot 過期
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        catalogEvents.incrementAndGet();
+        changeCount.incrementAndGet();
+    }
+
+    /**
+     * 定期重建, 涵蓋未經過 JPA 的資料變更
+     */
+    @Scheduled(fixedDelayString = "${catalog.refresh-interval:300000}",
+            initialDelayString = "${catalog.refresh-interval:300000}")
+    public void refresh() {
+        changeCount.incrementAndGet();
+        current();
+    }
+
+    private Snapshot rebuild() {
+        long builtFrom = changeCount.get();
+        long events = catalogEvents.get();
+        Snapshot previous = snapshot.get();
+        long version = Math.max(System.currentTimeMillis(), previous != null ? previous.version() + 1 : 0);
+
+        Snapshot next = transactionTemplate.execute(status -> build(version, builtFrom));
+        if (previous != null && events == eventsAtLastBuild && previous.sameContentAs(next)) {
+            // 定期重建且內容未變時沿用原本的版本
+            // 有 Course/Lesson 變更事件時一律換版本: 未發布單元或 snapshot 外的欄位變更也會反映在 ETag
+            next = new Snapshot(previous.version(), builtFrom, previous.courses(), previous.coursesById(),
+                    previous.lessonsByCourse());
+        }
+        eventsAtLastBuild = events;
+        snapshot.set(next);
+        log.debug("Course catalog snapshot rebuilt: version={}, courses={}", next.version(), next.courses().size());
+        return next;
+    }
+
+    private Snapshot build(long version, long builtFrom) {
+        Map<Long, CourseDTO> coursesById = new LinkedHashMap<>();
+        List<CourseDTO> published = new ArrayList<>();
+        for (Course course : courseRepository.findAllByOrderByDisplayOrderAscIdAsc()) {
+            CourseDTO dto = CourseDTO.from(course);
+            coursesById.put(course.getId(), dto);
+            if (Boolean.TRUE.equals(course.getIsPublished())) {
+                published.add(dto);
+            }
+        }
+
+        Map<Long, List<LessonDTO>> lessonsByCourse = new LinkedHashMap<>();
+        for (LessonRepository.LessonSummary lesson : lessonRepository.findPublishedSummaries()) {
+            lessonsByCourse.computeIfAbsent(lesson.getCourseId(), id -> new ArrayList<>())
+                    .add(toLessonDTO(lesson));
+        }
+        lessonsByCourse.replaceAll((courseId, lessons) -> List.copyOf(lessons));
+
+        return new Snapshot(version, builtFrom, List.copyOf(published), Map.copyOf(coursesById),
+                Map.copyOf(lessonsByCourse));
+    }
+
+    /**
+     * 單元列表用: 不包含 description 與 content, 完整內容由單元詳情 API 提供
+     */
+    private static LessonDTO toLessonDTO(LessonRepository.LessonSummary summary) {
+        return LessonDTO.builder()
+                .id(summary.getId())
+                .courseId(summary.getCourseId())
+                .title(summary.getTitle())
+                .type(summary.getType().name())
+                .videoUrl(summary.getVideoUrl())
+                .videoDuration(summary.getVideoDuration())
+                .displayOrder(summary.getDisplayOrder())
+                .experienceReward(summary.getExperienceReward())
+                .build();
+    }
+
+    /**
+     * Immutable catalog snapshot
+     *
+     * @param version         catalog 版本 (內容變更時遞增, 用於 ETag)
+     * @param changeCount     建立時的變更計數, 用來判斷是否過期
+     * @param courses         已發布課程 (依 displayOrder 排序)
+     * @param coursesById     所有課程
+     * @param lessonsByCourse 各課程已發布的單元 (依 displayOrder 排序, 包含影片資訊, 不含 description/content)
+     */
+    public record Snapshot(long version,
+                           long changeCount,
+                           List<CourseDTO> courses,
+                           Map<Long, CourseDTO> coursesById,
+                           Map<Long, List<LessonDTO>> lessonsByCourse) {
+
+        public Optional<CourseDTO> course(Long courseId) {
+            return Optional.ofNullable(coursesById.get(courseId));
+        }
+
+        public List<LessonDTO> lessons(Long courseId) {
+            return lessonsByCourse.getOrDefault(courseId, List.of());
+        }
+
+        boolean sameContentAs(Snapshot other) {
+            return courses.equals(other.courses)
+                    && coursesById.equals(other.coursesById)
+                    && lessonsByCourse.equals(other.lessonsByCourse);
+        }
+    }
+}
@@ -1,15 +1,16 @@
 package com.waterball.lms.service;
 
 import com.waterball.lms.model.dto.CourseDTO;
+import com.waterball.lms.model.dto.CoursePlayerDTO;
+import com.waterball.lms.model.dto.CursorPage;
 import com.waterball.lms.model.dto.LessonDTO;
+import com.waterball.lms.model.dto.UserDTO;
 import com.waterball.lms.model.entity.Course;
 import com.waterball.lms.model.entity.Lesson;
+import com.waterball.lms.model.entity.LessonContentCodec;
 import com.waterball.lms.model.entity.Progress;
-import com.waterball.lms.model.entity.User;
-import com.waterball.lms.repository.CourseRepository;
 import com.waterball.lms.repository.LessonRepository;
 import com.waterball.lms.repository.ProgressRepository;
-import com.waterball.lms.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -22,49 +23,112 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class CourseService {
 
-    private final CourseRepository courseRepository;
+    private final CourseCatalog courseCatalog;
     private final LessonRepository lessonRepository;
     private final ProgressRepository progressRepository;
-    private final UserRepository userRepository;
+    private final UserProfileCache userProfileCache;
     private final PurchaseService purchaseService;
+    private final ProgressWriteBuffer progressWriteBuffer;
+    private final UserContentVersions userContentVersions;
+
+    /**
+     * 課程列表與課程詳情的 ETag (只取決於 catalog 版本, 不查詢資料庫)
+     */
+    public String catalogETag() {
+        return "\"c" + Long.toString(courseCatalog.current().version(), 36) + "\"";
+    }
+
+    /**
+     * 單元列表與單元詳情的 ETag: catalog 版本 + 用戶的進度/權限版本 (不查詢資料庫)
+     */
+    public String lessonsETag(Long userId) {
+        String catalogVersion = Long.toString(courseCatalog.current().version(), 36);
+        if (userId == null) {
+            return "\"c" + catalogVersion + "\"";
+        }
+        return "\"c" + catalogVersion + "-u" + userContentVersions.versionOf(userId) + "\"";
+    }
 
-    @Transactional(readOnly = true)
     public List<CourseDTO> getAllCourses(String userEmail) {
         // Public API - guests can view all published courses
-        List<Course> courses = courseRepository.findAllByIsPublishedTrueOrderByDisplayOrderAsc();
+        return courseCatalog.current().courses();
+    }
 
-        return courses.stream()
-                .map(CourseDTO::from)
-                .collect(Collectors.toList());
+    /**
+     * 已發布課程的分頁 (keyset: displayOrder, id)
+     * catalog snapshot 已依 (displayOrder, id) 排序, 以二分搜尋定位 cursor 之後的第一筆
+     */
+    public CursorPage<CourseDTO> getCoursesPage(String cursor, Integer limit) {
+        List<CourseDTO> courses = courseCatalog.current().courses();
+        int size = CursorPage.clampLimit(limit);
+
+        int from = 0;
+        if (cursor != null) {
+            String[] keys = ContinuationToken.decode(cursor, 2);
+            try {
+                from = firstAfter(courses, Integer.parseInt(keys[0]), Long.parseLong(keys[1]));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+        int to = Math.min(courses.size(), from + size);
+
+        String nextCursor = null;
+        if (to < courses.size()) {
+            CourseDTO last = courses.get(to - 1);
+            nextCursor = ContinuationToken.encode(last.getDisplayOrder(), last.getId());
+        }
+        return CursorPage.<CourseDTO>builder()
+                .items(courses.subList(from, to))
+                .nextCursor(nextCursor)
+                .build();
     }
 
-    @Transactional(readOnly = true)
     public CourseDTO getCourse(Long courseId, String userEmail) {
-        Course course = courseRepository.findById(courseId)
+        // Public API - guests can view course info (just no video URLs in lessons)
+        return courseCatalog.current().course(courseId)
                 .orElseThrow(() -> new IllegalArgumentException("Course not found"));
+    }
 
-        // Public API - guests can view course info (just no video URLs in lessons)
-        return CourseDTO.from(course);
+    @Transactional(readOnly = true)
+    public List<LessonDTO> getCourseLessons(Long courseId, Long userId) {
+        CourseCatalog.Snapshot catalog = courseCatalog.current();
+        if (catalog.course(courseId).isEmpty()) {
+            throw new IllegalArgumentException("Course not found");
+        }
+
+        // Check if user has access to video content
+        boolean hasAccess = userId != null && purchaseService.hasAccess(userId, courseId);
+
+        return personalizeLessons(catalog.lessons(courseId), courseId, userId, hasAccess);
     }
 
+    /**
+     * 課程播放頁所需的資料 (課程、單元、權限、進度、用戶) 一次取得
+     * 課程與單元來自 catalog snapshot, 用戶資料來自 UserProfileCache, 只查詢進度
+     */
     @Transactional(readOnly = true)
-    public List<LessonDTO> getCourseLessons(Long courseId, String userEmail) {
-        Course course = courseRepository.findById(courseId)
+    public CoursePlayerDTO getCoursePlayer(Long courseId, Long userId) {
+        CourseCatalog.Snapshot catalog = courseCatalog.current();
+        CourseDTO course = catalog.course(courseId)
                 .orElseThrow(() -> new IllegalArgumentException("Course not found"));
 
-        // Check if user has access to video content
-        boolean hasAccess = false;
-        Long userId = null;
-        if (userEmail != null) {
-            User user = userRepository.findByEmail(userEmail).orElse(null);
-            if (user != null) {
-                userId = user.getId();
-                hasAccess = purchaseService.hasAccess(userId, courseId);
-            }
-        }
+        UserDTO user = userId != null ? userProfileCache.get(userId).orElse(null) : null;
 
-        List<Lesson> lessons = lessonRepository.findByCourseIdAndIsPublishedTrueOrderByDisplayOrderAsc(courseId);
+        boolean hasAccess = user != null && purchaseService.hasAccess(userId, courseId);
+
+        return CoursePlayerDTO.builder()
+                .course(course)
+                .lessons(personalizeLessons(catalog.lessons(courseId), courseId, userId, hasAccess))
+                .hasAccess(hasAccess)
+                .user(user)
+                .build();
+    }
 
+    /**
+     * 複製 snapshot 中的單元並填入用戶相關欄位 (影片資訊、進度)
+     */
+    private List<LessonDTO> personalizeLessons(List<LessonDTO> lessons, Long courseId, Long userId, boolean hasAccess) {
         // 查詢用戶的進度 (only if authenticated)
         Map<Long, Progress> progressMap = Map.of();
         if (userId != null) {
@@ -74,11 +138,13 @@ public class CourseService {
         }
 
         final Map<Long, Progress> finalProgressMap = progressMap;
-        final boolean includeVideoInfo = hasAccess;
 
         return lessons.stream()
                 .map(lesson -> {
-                    LessonDTO dto = LessonDTO.from(lesson, includeVideoInfo);
+                    // snapshot 中的 DTO 為共用物件, 複製後再填入用戶相關欄位
+                    LessonDTO dto = hasAccess
+                            ? lesson.toBuilder().build()
+                            : lesson.toBuilder().videoUrl(null).videoDuration(null).build();
                     Progress progress = finalProgressMap.get(lesson.getId());
                     if (progress != null) {
                         dto.setProgressPercentage(progress.getProgressPercentage());
@@ -91,28 +157,21 @@ public class CourseService {
                         dto.setIsCompleted(false);
                         dto.setIsSubmitted(false);
                     }
+                    applyBufferedProgress(dto, userId);
                     return dto;
                 })
                 .collect(Collectors.toList());
     }
 
     @Transactional(readOnly = true)
-    public LessonDTO getLesson(Long lessonId, String userEmail) {
+    public LessonDTO getLesson(Long lessonId, Long userId) {
         Lesson lesson = lessonRepository.findById(lessonId)
                 .orElseThrow(() -> new IllegalArgumentException("Lesson not found"));
 
         Course course = lesson.getCourse();
 
         // Check if user has access to video content
-        boolean hasAccess = false;
-        Long userId = null;
-        if (userEmail != null) {
-            User user = userRepository.findByEmail(userEmail).orElse(null);
-            if (user != null) {
-                userId = user.getId();
-                hasAccess = purchaseService.hasAccess(userId, course.getId());
-            }
-        }
+        boolean hasAccess = userId != null && purchaseService.hasAccess(userId, course.getId());
 
         LessonDTO dto = LessonDTO.from(lesson, hasAccess);
 
@@ -132,6 +191,7 @@ public class CourseService {
                 dto.setIsCompleted(false);
                 dto.setIsSubmitted(false);
             }
+            applyBufferedProgress(dto, userId);
         } else {
             dto.setProgressPercentage(0);
             dto.setLastPosition(0);
@@ -141,4 +201,50 @@ public class CourseService {
 
         return dto;
     }
+
+    // 第一筆排序鍵大於 (displayOrder, id) 的位置
+    private static int firstAfter(List<CourseDTO> courses, int displayOrder, long id) {
+        int low = 0;
+        int high = courses.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            CourseDTO course = courses.get(mid);
+            int cmp = course.getDisplayOrder() != displayOrder
+                    ? Integer.compare(course.getDisplayOrder(), displayOrder)
+                    : Long.compare(course.getId(), id);
+            if (cmp <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * 單元文章內容 (gzip bytes), 尚未壓縮的舊資料在此壓縮
+     */
+    public byte[] getLessonContentGzip(Long lessonId) {
+        LessonRepository.LessonContent content = lessonRepository.findContentById(lessonId)
+                .orElseThrow(() -> new IllegalArgumentException("Lesson not found"));
+        if (content.getContentGzip() != null) {
+            return content.getContentGzip();
+        }
+        return LessonContentCodec.compress(content.getContent() != null ? content.getContent() : "");
+    }
+
+    /**
+     * 以 write-behind buffer 中尚未寫入的最新進度覆蓋資料庫讀到的值
+     */
+    private void applyBufferedProgress(LessonDTO dto, Long userId) {
+        if (userId == null) {
+            return;
+        }
+        progressWriteBuffer.peek(userId, dto.getId()).ifPresent(heartbeat -> {
+            dto.setProgressPercentage(heartbeat.percentage());
+            dto.setLastPosition(heartbeat.position());
+            dto.setIsCompleted(heartbeat.completed());
+            dto.setIsSubmitted(heartbeat.submitted());
+        });
+    }
 }
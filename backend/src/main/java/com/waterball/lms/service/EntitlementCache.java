@@ -0,0 +1,212 @@
+package com.waterball.lms.service;
+
+import com.waterball.lms.model.dto.CourseDTO;
+import com.waterball.lms.model.entity.Course;
+import com.waterball.lms.model.event.CoursePurchasedEvent;
+import com.waterball.lms.repository.CoursePurchaseRepository;
+import com.waterball.lms.repository.CourseRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * In-memory course entitlements used by {@link PurchaseService#hasAccess}
+ * <p>
+ * - 免費課程: 由 catalog snapshot 建立一個全域 bitmap (course id 為 bit index), catalog 版本變更時重建
+ * - 已購買課程: 每個用戶一個 bitmap, 第一次查詢時從 course_purchases 載入, 以 LRU 限制用戶數
+ * 購買 commit 後清除該用戶的 bitmap。載入期間若發生失效, 載入結果不會寫入快取, 避免放回過期資料。
+ * 用戶 bitmap 分散在最多 {@value #MAX_STRIPES} 個 stripe, 各自加鎖並以 LRU 限制筆數, 不同用戶的查詢不會互相等待。
+ * 無法作為 bit index 的 course id (負數或超過 int 範圍) 不進 bitmap, 一律改查資料庫。
+ */
+@Component
+public class EntitlementCache {
+
+    static final int MAX_STRIPES = 64;
+
+    private static final int NO_BIT_INDEX = -1;
+
+    private final CourseCatalog courseCatalog;
+    private final CourseRepository courseRepository;
+    private final CoursePurchaseRepository purchaseRepository;
+
+    private final AtomicReference<CatalogBits> catalogBits = new AtomicReference<>();
+    private final Stripe[] stripes;
+
+    public EntitlementCache(CourseCatalog courseCatalog,
+                            CourseRepository courseRepository,
+                            CoursePurchaseRepository purchaseRepository,
+                            @Value("${entitlement.cache.max-users:10000}") int maxUsers) {
+        this.courseCatalog = courseCatalog;
+        this.courseRepository = courseRepository;
+        this.purchaseRepository = purchaseRepository;
+        // stripe 數為 2 的次方且不超過上限筆數, 總筆數不會超過 maxUsers
+        int stripeCount = Integer.highestOneBit(Math.max(1, Math.min(MAX_STRIPES, maxUsers)));
+        int perStripe = Math.max(0, maxUsers) / stripeCount;
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe(perStripe);
+        }
+    }
+
+    /**
+     * 免費課程或已購買
+     *
+     * @throws IllegalArgumentException if course not found
+     */
+    public boolean hasAccess(Long userId, Long courseId) {
+        if (isFree(courseId)) {
+            return true;
+        }
+        int index = bitIndex(courseId);
+        if (index == NO_BIT_INDEX) {
+            return purchaseRepository.existsByUserIdAndCourseId(userId, courseId);
+        }
+        return purchased(userId).get(index);
+    }
+
+    /**
+     * 批次檢查多門課程, 已購買課程最多載入一次
+     *
+     * @return course id → 是否可存取 (依傳入順序)
+     * @throws IllegalArgumentException if any course not found
+     */
+    public Map<Long, Boolean> hasAccess(Long userId, Collection<Long> courseIds) {
+        Map<Long, Boolean> result = new LinkedHashMap<>();
+        BitSet purchased = null;
+        for (Long courseId : courseIds) {
+            boolean access = isFree(courseId);
+            if (!access) {
+                int index = bitIndex(courseId);
+                if (index == NO_BIT_INDEX) {
+                    access = purchaseRepository.existsByUserIdAndCourseId(userId, courseId);
+                } else {
+                    if (purchased == null) {
+                        purchased = purchased(userId);
+                    }
+                    access = purchased.get(index);
+                }
+            }
+            result.put(courseId, access);
+        }
+        return result;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCoursePurchased(CoursePurchasedEvent event) {
+        invalidate(event.userId());
+    }
+
+    public void invalidate(Long userId) {
+        Stripe stripe = stripeFor(userId);
+        synchronized (stripe) {
+            stripe.purchased.remove(userId);
+            stripe.invalidations++;
+        }
+    }
+
+    private boolean isFree(Long courseId) {
+        CatalogBits bits = catalogBits();
+        int index = bitIndex(courseId);
+        if (index != NO_BIT_INDEX && bits.known().get(index)) {
+            return bits.free().get(index);
+        }
+        // snapshot 尚未包含的課程 (剛新增) 或無法放入 bitmap 的 id 改查資料庫
+        Course course = courseRepository.findById(courseId)
+                .orElseThrow(() -> new IllegalArgumentException("Course not found"));
+        return !course.getIsPremium();
+    }
+
+    private CatalogBits catalogBits() {
+        CourseCatalog.Snapshot snapshot = courseCatalog.current();
+        CatalogBits bits = catalogBits.get();
+        if (bits != null && bits.version() >= snapshot.version()) {
+            return bits;
+        }
+        BitSet known = new BitSet();
+        BitSet free = new BitSet();
+        for (CourseDTO course : snapshot.coursesById().values()) {
+            int index = bitIndex(course.getId());
+            if (index == NO_BIT_INDEX) {
+                continue;
+            }
+            known.set(index);
+            if (!Boolean.TRUE.equals(course.getIsPremium())) {
+                free.set(index);
+            }
+        }
+        CatalogBits next = new CatalogBits(snapshot.version(), known, free);
+        return catalogBits.accumulateAndGet(next,
+                (existing, candidate) -> existing != null && existing.version() >= candidate.version()
+                        ? existing : candidate);
+    }
+
+    private BitSet purchased(Long userId) {
+        Stripe stripe = stripeFor(userId);
+        long generation;
+        synchronized (stripe) {
+            BitSet cached = stripe.purchased.get(userId);
+            if (cached != null) {
+                return cached;
+            }
+            generation = stripe.invalidations;
+        }
+
+        BitSet loaded = new BitSet();
+        for (Long courseId : purchaseRepository.findCourseIdsByUserId(userId)) {
+            int index = bitIndex(courseId);
+            if (index != NO_BIT_INDEX) {
+                loaded.set(index);
+            }
+        }
+
+        synchronized (stripe) {
+            if (stripe.invalidations == generation) {
+                stripe.purchased.put(userId, loaded);
+            }
+        }
+        return loaded;
+    }
+
+    private Stripe stripeFor(Long userId) {
+        int h = Objects.hashCode(userId);
+        return stripes[(h ^ (h >>> 16)) & (stripes.length - 1)];
+    }
+
+    /**
+     * @return bit index, 或 {@link #NO_BIT_INDEX} (null、負數或超過 int 範圍的 id)
+     */
+    private static int bitIndex(Long courseId) {
+        if (courseId == null || courseId < 0 || courseId > Integer.MAX_VALUE) {
+            return NO_BIT_INDEX;
+        }
+        return courseId.intValue();
+    }
+
+    // BitSet 建立後不再修改
+    private record CatalogBits(long version, BitSet known, BitSet free) {
+    }
+
+    // guarded by the stripe itself
+    private static final class Stripe {
+
+        private final LinkedHashMap<Long, BitSet> purchased;
+        // 同一 stripe 的失效次數, 載入期間有變動時不寫入快取
+        private long invalidations;
+
+        Stripe(int maxUsers) {
+            this.purchased = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, BitSet> eldest) {
+                    return size() > maxUsers;
+                }
+            };
+        }
+    }
+}
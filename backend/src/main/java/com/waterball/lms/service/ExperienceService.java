@@ -1,9 +1,10 @@
 package com.waterball.lms.service;
 
 import com.waterball.lms.model.dto.UserDTO;
-import com.waterball.lms.model.entity.User;
+import com.waterball.lms.model.event.UserProfileChangedEvent;
 import com.waterball.lms.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -12,36 +13,43 @@ import org.springframework.transaction.annotation.Transactional;
 public class ExperienceService {
 
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * 增加經驗值並處理升級
+     * 以單一 UPDATE ... RETURNING 原子地完成, 多裝置同時交付不會遺失更新
      */
     @Transactional
-    public UserDTO addExperience(User user, int experience) {
-        int currentExp = user.getExperience();
-        int newExp = currentExp + experience;
-        user.setExperience(newExp);
+    public UserDTO addExperience(Long userId, int experience) {
+        UserDTO dto = userRepository.incrementExperience(userId, experience)
+                .map(ExperienceService::toUserDTO)
+                .orElseThrow(() -> new IllegalArgumentException("User not found"));
 
-        // 計算新等級
-        int newLevel = calculateLevel(newExp);
-        int oldLevel = user.getLevel();
-
-        if (newLevel > oldLevel) {
-            user.setLevel(newLevel);
-        }
-
-        userRepository.save(user);
-
-        UserDTO dto = UserDTO.from(user);
+        // 原生 SQL 不會觸發 UserEntityListener, commit 後清除快取的用戶資料並更新排行榜
+        // (在交易中直接更新排行榜的話, rollback 時記憶體中會留下未寫入的經驗值)
+        eventPublisher.publishEvent(new UserProfileChangedEvent(userId));
 
         // 如果升級,可以在這裡觸發升級通知
-        if (newLevel > oldLevel) {
+        if (dto.getLevel() > calculateLevel(dto.getExperience() - experience)) {
             // TODO: 觸發升級事件/通知
         }
 
         return dto;
     }
 
+    private static UserDTO toUserDTO(UserRepository.UserSnapshot user) {
+        return UserDTO.builder()
+                .id(user.getId())
+                .email(user.getEmail())
+                .displayName(user.getDisplayName())
+                .avatarUrl(user.getAvatarUrl())
+                .role(user.getRole())
+                .level(user.getLevel())
+                .experience(user.getExperience())
+                .isPremium(user.getIsPremium())
+                .build();
+    }
+
     /**
      * 根據經驗值計算等級
      * 簡單演算法: 每 1000 EXP 升 1 級
@@ -0,0 +1,210 @@
+package com.waterball.lms.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Concurrent ordered index of (experience, userId) used by the leaderboard.
+ * <p>
+ * 排序: 經驗值高者在前, 相同經驗值依 userId 由小到大。
+ * 名次採用同分同名次 (1, 2, 2, 4), 名次 = 經驗值比自己高的人數 + 1,
+ * 由依經驗值分桶的 Fenwick tree 計數 (大小固定, 與最高經驗值無關), 查詢名次為 O(log buckets)。
+ */
+public class LeaderboardIndex {
+
+    private static final Comparator<Entry> ORDER = Comparator
+            .comparingInt(Entry::experience).reversed()
+            .thenComparingLong(Entry::userId);
+
+    private final ConcurrentSkipListSet<Entry> ranking = new ConcurrentSkipListSet<>(ORDER);
+    private final ConcurrentHashMap<Long, Entry> byUser = new ConcurrentHashMap<>();
+    private final ExperienceCounter counter = new ExperienceCounter();
+
+    /**
+     * 新增或更新用戶的經驗值
+     */
+    public void update(long userId, int experience) {
+        Entry next = new Entry(userId, Math.max(0, experience));
+        byUser.compute(userId, (id, current) -> {
+            if (current != null) {
+                if (current.experience() == next.experience()) {
+                    return current;
+                }
+                ranking.remove(current);
+                counter.remove(current.experience());
+            }
+            ranking.add(next);
+            counter.add(next.experience());
+            return next;
+        });
+    }
+
+    public void remove(long userId) {
+        byUser.computeIfPresent(userId, (id, current) -> {
+            ranking.remove(current);
+            counter.remove(current.experience());
+            return null;
+        });
+    }
+
+    public int size() {
+        return byUser.size();
+    }
+
+    /**
+     * 取得用戶名次
+     */
+    public Optional<Ranked> rankOf(long userId) {
+        Entry entry = byUser.get(userId);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new Ranked(rankOfExperience(entry.experience()), entry.userId(), entry.experience()));
+    }
+
+    /**
+     * 取得前 N 名
+     */
+    public List<Ranked> top(int limit) {
+        List<Ranked> result = new ArrayList<>(limit);
+        Iterator<Entry> iterator = ranking.iterator();
+        Ranked previous = null;
+        while (iterator.hasNext() && result.size() < limit) {
+            Entry entry = iterator.next();
+            long rank = previous != null && previous.experience() == entry.experience()
+                    ? previous.rank()
+                    : result.size() + 1;
+            previous = new Ranked(rank, entry.userId(), entry.experience());
+            result.add(previous);
+        }
+        return result;
+    }
+
+    /**
+     * 取得用戶前後各 range 名的排行 (包含用戶本身)
+     */
+    public List<Ranked> around(long userId, int range) {
+        Entry entry = byUser.get(userId);
+        if (entry == null) {
+            return List.of();
+        }
+
+        List<Entry> above = new ArrayList<>(range);
+        Iterator<Entry> up = ranking.headSet(entry, false).descendingIterator();
+        while (up.hasNext() && above.size() < range) {
+            above.add(up.next());
+        }
+
+        List<Ranked> result = new ArrayList<>(range * 2 + 1);
+        for (int i = above.size() - 1; i >= 0; i--) {
+            result.add(ranked(above.get(i)));
+        }
+        result.add(ranked(entry));
+
+        Iterator<Entry> down = ranking.tailSet(entry, false).iterator();
+        for (int i = 0; i < range && down.hasNext(); i++) {
+            result.add(ranked(down.next()));
+        }
+        return result;
+    }
+
+    private Ranked ranked(Entry entry) {
+        return new Ranked(rankOfExperience(entry.experience()), entry.userId(), entry.experience());
+    }
+
+    private long rankOfExperience(int experience) {
+        return counter.countGreaterThan(experience) + 1;
+    }
+
+    private record Entry(long userId, int experience) {
+    }
+
+    /**
+     * 排行結果
+     */
+    public record Ranked(long rank, long userId, int experience) {
+    }
+
+    /**
+     * Counts users per experience value for rank queries, independent of the largest experience value
+     * <p>
+     * 經驗值以對數刻度分到固定數量的 bucket (小於 256 時每個值一個 bucket, 之後每個 2 的次方區間切成 256 份),
+     * Fenwick tree 依 bucket 計數, 大小固定不需擴充。同一 bucket 內的不同經驗值以 TreeMap 計數,
+     * 名次 = 較高 bucket 的人數 (Fenwick) + 同 bucket 中經驗值較高的人數。
+     */
+    private static final class ExperienceCounter {
+
+        private static final int MANTISSA_BITS = 8;
+        private static final int BUCKETS = (Integer.SIZE - MANTISSA_BITS) << MANTISSA_BITS;
+
+        private final long[] tree = new long[BUCKETS + 1];
+        private final Map<Integer, TreeMap<Integer, Integer>> valuesByBucket = new HashMap<>();
+        private long total;
+
+        synchronized void add(int experience) {
+            int bucket = bucketOf(experience);
+            valuesByBucket.computeIfAbsent(bucket, b -> new TreeMap<>()).merge(experience, 1, Integer::sum);
+            total++;
+            apply(bucket, 1);
+        }
+
+        synchronized void remove(int experience) {
+            int bucket = bucketOf(experience);
+            TreeMap<Integer, Integer> values = valuesByBucket.get(bucket);
+            if (values == null || !values.containsKey(experience)) {
+                return;
+            }
+            values.computeIfPresent(experience, (value, count) -> count > 1 ? count - 1 : null);
+            if (values.isEmpty()) {
+                valuesByBucket.remove(bucket);
+            }
+            total--;
+            apply(bucket, -1);
+        }
+
+        synchronized long countGreaterThan(int experience) {
+            int bucket = bucketOf(experience);
+            long greater = total - prefixSum(bucket);
+            TreeMap<Integer, Integer> values = valuesByBucket.get(bucket);
+            if (values != null) {
+                for (int count : values.tailMap(experience, false).values()) {
+                    greater += count;
+                }
+            }
+            return greater;
+        }
+
+        // 非負經驗值 → bucket (單調遞增)
+        static int bucketOf(int experience) {
+            if (experience < (1 << MANTISSA_BITS)) {
+                return experience;
+            }
+            int exponent = Integer.SIZE - 1 - Integer.numberOfLeadingZeros(experience);
+            int mantissa = (experience >>> (exponent - MANTISSA_BITS)) & ((1 << MANTISSA_BITS) - 1);
+            return ((exponent - MANTISSA_BITS + 1) << MANTISSA_BITS) + mantissa;
+        }
+
+        private void apply(int bucket, int delta) {
+            for (int i = bucket + 1; i < tree.length; i += i & -i) {
+                tree[i] += delta;
+            }
+        }
+
+        // bucket 0..bucket 的人數
+        private long prefixSum(int bucket) {
+            long sum = 0;
+            for (int i = bucket + 1; i > 0; i -= i & -i) {
+                sum += tree[i];
+            }
+            return sum;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.waterball.lms.service;
+
+import com.waterball.lms.model.dto.LeaderboardEntryDTO;
+import com.waterball.lms.model.dto.UserDTO;
+import com.waterball.lms.model.event.UserProfileChangedEvent;
+import com.waterball.lms.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Service for the experience leaderboard
+ * 排行榜完全由記憶體中的 {@link LeaderboardIndex} 提供, 啟動時從 users 表建立,
+ * 之後由註冊流程與 {@link UserProfileChangedEvent} (交易 commit 後重新讀取該用戶) 增量更新。
+ * 每個用戶的更新以 profiles 的 compute 序列化, 啟動載入不會蓋過載入期間已套用的較新資料。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LeaderboardService {
+
+    private static final int MAX_LIMIT = 100;
+
+    private final UserRepository userRepository;
+
+    private final LeaderboardIndex index = new LeaderboardIndex();
+    private final Map<Long, Profile> profiles = new ConcurrentHashMap<>();
+
+    /**
+     * 啟動時從 users 表建立排行榜
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        List<UserRepository.LeaderboardRow> rows = userRepository.findAllLeaderboardRows();
+        for (UserRepository.LeaderboardRow row : rows) {
+            // 載入期間已由 update 套用的用戶保留較新的資料
+            profiles.computeIfAbsent(row.getId(), id -> {
+                index.update(id, row.getExperience() != null ? row.getExperience() : 0);
+                return new Profile(row.getDisplayName(), row.getAvatarUrl(), row.getLevel());
+            });
+        }
+        log.info("Leaderboard loaded with {} users", index.size());
+    }
+
+    /**
+     * 用戶經驗值或資料變更 commit 後, 以資料庫中的最新值更新排行榜
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserProfileChanged(UserProfileChangedEvent event) {
+        userRepository.findLeaderboardRowById(event.userId()).ifPresentOrElse(
+                row -> apply(row.getId(), row.getExperience() != null ? row.getExperience() : 0,
+                        new Profile(row.getDisplayName(), row.getAvatarUrl(), row.getLevel())),
+                () -> remove(event.userId()));
+    }
+
+    /**
+     * 新用戶註冊 (已 commit) 後加入排行榜
+     */
+    public void update(UserDTO user) {
+        apply(user.getId(), user.getExperience(),
+                new Profile(user.getDisplayName(), user.getAvatarUrl(), user.getLevel()));
+    }
+
+    private void apply(Long userId, int experience, Profile profile) {
+        profiles.compute(userId, (id, current) -> {
+            index.update(id, experience);
+            return profile;
+        });
+    }
+
+    private void remove(Long userId) {
+        profiles.computeIfPresent(userId, (id, current) -> {
+            index.remove(id);
+            return null;
+        });
+    }
+
+    /**
+     * 取得前 N 名
+     */
+    public List<LeaderboardEntryDTO> getTop(int limit) {
+        return index.top(clamp(limit)).stream()
+                .map(this::toDTO)
+                .toList();
+    }
+
+    /**
+     * 取得用戶名次
+     */
+    public LeaderboardEntryDTO getRank(Long userId) {
+        return index.rankOf(userId)
+                .map(this::toDTO)
+                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+    }
+
+    /**
+     * 取得用戶前後各 range 名的排行
+     */
+    public List<LeaderboardEntryDTO> getAround(Long userId, int range) {
+        List<LeaderboardIndex.Ranked> around = index.around(userId, clamp(range));
+        if (around.isEmpty()) {
+            throw new IllegalArgumentException("User not found");
+        }
+        return around.stream()
+                .map(this::toDTO)
+                .toList();
+    }
+
+    private LeaderboardEntryDTO toDTO(LeaderboardIndex.Ranked ranked) {
+        Profile profile = profiles.get(ranked.userId());
+        return LeaderboardEntryDTO.builder()
+                .rank(ranked.rank())
+                .userId(ranked.userId())
+                .displayName(profile != null ? profile.displayName() : null)
+                .avatarUrl(profile != null ? profile.avatarUrl() : null)
+                .level(profile != null ? profile.level() : null)
+                .experience(ranked.experience())
+                .build();
+    }
+
+    private int clamp(int value) {
+        return Math.max(1, Math.min(MAX_LIMIT, value));
+    }
+
+    private record Profile(String displayName, String avatarUrl, Integer level) {
+    }
+}
@@ -0,0 +1,52 @@
+package com.waterball.lms.service;
+
+import com.waterball.lms.model.entity.LessonContentCodec;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Compresses legacy lesson content into lessons.content_gzip (V6)
+ * <p>
+ * 啟動後分批處理 content 不為 NULL 且尚未壓縮的單元, 每批各自 commit, 中斷後重新啟動會從剩下的資料繼續。
+ * 只更新 content/content_gzip 欄位, 不會觸發 lesson_count trigger。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LessonContentBackfill {
+
+    private static final int BATCH_SIZE = 100;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        int total = 0;
+        while (true) {
+            List<Object[]> batch = jdbcTemplate.query(
+                    "SELECT id, content FROM lessons WHERE content IS NOT NULL AND content_gzip IS NULL "
+                            + "ORDER BY id LIMIT ?",
+                    (rs, rowNum) -> new Object[]{
+                            LessonContentCodec.compress(rs.getString("content")),
+                            rs.getLong("id")
+                    },
+                    BATCH_SIZE);
+            if (batch.isEmpty()) {
+                break;
+            }
+            jdbcTemplate.batchUpdate(
+                    "UPDATE lessons SET content_gzip = ?, content = NULL WHERE id = ? AND content_gzip IS NULL",
+                    batch);
+            total += batch.size();
+        }
+        if (total > 0) {
+            log.info("Compressed content of {} lessons", total);
+        }
+    }
+}
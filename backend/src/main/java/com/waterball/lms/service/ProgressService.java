@@ -1,80 +1,183 @@
 package com.waterball.lms.service;
 
+import com.waterball.lms.model.dto.ProgressBatchRequest;
 import com.waterball.lms.model.dto.ProgressSubmitRequest;
 import com.waterball.lms.model.dto.ProgressUpdateRequest;
 import com.waterball.lms.model.dto.UserDTO;
 import com.waterball.lms.model.entity.Lesson;
 import com.waterball.lms.model.entity.Progress;
-import com.waterball.lms.model.entity.User;
+import com.waterball.lms.model.event.UserContentChangedEvent;
 import com.waterball.lms.repository.LessonRepository;
 import com.waterball.lms.repository.ProgressRepository;
-import com.waterball.lms.repository.UserRepository;
-import lombok.RequiredArgsConstructor;
+import com.waterball.lms.repository.ProgressRepositoryCustom;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
-@RequiredArgsConstructor
 public class ProgressService {
 
     private final ProgressRepository progressRepository;
     private final LessonRepository lessonRepository;
-    private final UserRepository userRepository;
     private final ExperienceService experienceService;
     private final PurchaseService purchaseService;
+    private final ProgressWriteBuffer progressWriteBuffer;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    public ProgressService(ProgressRepository progressRepository,
+                           LessonRepository lessonRepository,
+                           ExperienceService experienceService,
+                           PurchaseService purchaseService,
+                           ProgressWriteBuffer progressWriteBuffer,
+                           ApplicationEventPublisher eventPublisher,
+                           PlatformTransactionManager transactionManager) {
+        this.progressRepository = progressRepository;
+        this.lessonRepository = lessonRepository;
+        this.experienceService = experienceService;
+        this.purchaseService = purchaseService;
+        this.progressWriteBuffer = progressWriteBuffer;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
 
-    @Transactional
-    public Map<String, Object> updateProgress(String userEmail, ProgressUpdateRequest request) {
-        User user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+    /**
+     * 不在方法上開啟交易: write-behind 的 heartbeat 只合併到記憶體, 不佔用資料庫連線;
+     * 只有第一次 heartbeat (權限檢查與載入 session) 或未啟用 write-behind 時才開啟交易
+     */
+    public Map<String, Object> updateProgress(Long userId, ProgressUpdateRequest request) {
+        // Write-behind: 已檢查過權限的 session 直接合併到記憶體, 由 ProgressWriteBuffer 定期寫入
+        if (progressWriteBuffer.isEnabled()) {
+            Optional<ProgressWriteBuffer.Heartbeat> buffered = progressWriteBuffer.record(
+                    userId, request.getLessonId(), request.getPosition(), request.getDuration());
+            if (buffered.isPresent()) {
+                // 沒有交易, 立即更新用戶的 ETag 版本
+                eventPublisher.publishEvent(new UserContentChangedEvent(userId));
+                return toProgressResult(request.getLessonId(), buffered.get());
+            }
+        }
+
+        return transactionTemplate.execute(status -> updateProgressInTransaction(userId, request));
+    }
+
+    private Map<String, Object> updateProgressInTransaction(Long userId, ProgressUpdateRequest request) {
+        // 交易 commit 後才會更新用戶的 ETag 版本, 權限檢查失敗 (rollback) 時不會
+        eventPublisher.publishEvent(new UserContentChangedEvent(userId));
 
         Lesson lesson = lessonRepository.findById(request.getLessonId())
                 .orElseThrow(() -> new IllegalArgumentException("Lesson not found"));
 
         // Check access: free course OR purchased
-        if (!purchaseService.hasAccess(user.getId(), lesson.getCourse().getId())) {
+        if (!purchaseService.hasAccess(userId, lesson.getCourse().getId())) {
             throw new IllegalArgumentException("Course requires purchase");
         }
 
-        // 查詢或建立進度
-        Progress progress = progressRepository.findByUserIdAndLessonId(user.getId(), lesson.getId())
-                .orElseGet(() -> {
-                    Progress newProgress = new Progress();
-                    newProgress.setUser(user);
-                    newProgress.setLesson(lesson);
-                    return newProgress;
-                });
+        if (progressWriteBuffer.isEnabled()) {
+            Optional<Progress> stored = progressRepository.findByUserIdAndLessonId(userId, lesson.getId());
+            ProgressWriteBuffer.Heartbeat heartbeat = progressWriteBuffer.open(
+                    userId, lesson.getId(),
+                    stored.map(Progress::getLastPosition).orElse(0),
+                    stored.map(Progress::getIsSubmitted).orElse(false),
+                    request.getPosition(), request.getDuration());
+            return toProgressResult(lesson.getId(), heartbeat);
+        }
 
-        // 更新進度
-        progress.updateProgress(request.getPosition(), request.getDuration());
-        progressRepository.save(progress);
+        // 單一 SQL upsert: 不會因兩個分頁同時送出而違反 uq_progress_user_lesson
+        ProgressRepository.ProgressState state = progressRepository.upsertProgress(
+                userId, lesson.getId(), request.getPosition(), request.getDuration());
 
         return Map.of(
                 "lessonId", lesson.getId(),
-                "progressPercentage", progress.getProgressPercentage(),
-                "lastPosition", progress.getLastPosition(),
-                "isCompleted", progress.getIsCompleted(),
-                "isSubmitted", progress.getIsSubmitted()
+                "progressPercentage", state.getProgressPercentage(),
+                "lastPosition", state.getLastPosition(),
+                "isCompleted", state.getIsCompleted(),
+                "isSubmitted", state.getIsSubmitted()
         );
     }
 
+    /**
+     * 批次更新多個單元的進度 (離線緩存的 heartbeat 重新連線後一次送出)
+     * 每個課程只檢查一次存取權限, 整批在同一個交易中以 JDBC batch 寫入
+     */
     @Transactional
-    public Map<String, Object> submitLesson(String userEmail, ProgressSubmitRequest request) {
-        User user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+    public Map<String, Object> updateProgressBatch(Long userId, ProgressBatchRequest request) {
+        // 同一單元只保留最遠的播放位置
+        Map<Long, ProgressUpdateRequest> latestByLesson = new LinkedHashMap<>();
+        for (ProgressUpdateRequest entry : request.getEntries()) {
+            latestByLesson.merge(entry.getLessonId(), entry,
+                    (current, next) -> next.getPosition() >= current.getPosition() ? next : current);
+        }
+
+        List<Lesson> lessons = lessonRepository.findAllById(latestByLesson.keySet());
+        if (lessons.size() != latestByLesson.size()) {
+            throw new IllegalArgumentException("Lesson not found");
+        }
+
+        // Check access once per distinct course
+        Set<Long> courseIds = lessons.stream()
+                .map(lesson -> lesson.getCourse().getId())
+                .collect(Collectors.toSet());
+        for (Long courseId : courseIds) {
+            if (!purchaseService.hasAccess(userId, courseId)) {
+                throw new IllegalArgumentException("Course requires purchase");
+            }
+        }
+
+        List<ProgressRepositoryCustom.ProgressUpsert> upserts = latestByLesson.values().stream()
+                .map(entry -> new ProgressRepositoryCustom.ProgressUpsert(
+                        userId, entry.getLessonId(), entry.getPosition(), entry.getDuration()))
+                .toList();
+        progressRepository.batchUpsertProgress(upserts);
+        if (progressWriteBuffer.isEnabled()) {
+            upserts.forEach(upsert -> progressWriteBuffer.merge(
+                    userId, upsert.lessonId(), upsert.position(), upsert.duration()));
+        }
+        eventPublisher.publishEvent(new UserContentChangedEvent(userId));
+
+        List<Map<String, Object>> results = progressRepository
+                .findByUserIdAndLessonIdIn(userId, latestByLesson.keySet()).stream()
+                .map(progress -> Map.<String, Object>of(
+                        "lessonId", progress.getLesson().getId(),
+                        "progressPercentage", progress.getProgressPercentage(),
+                        "lastPosition", progress.getLastPosition(),
+                        "isCompleted", progress.getIsCompleted(),
+                        "isSubmitted", progress.getIsSubmitted()
+                ))
+                .toList();
+
+        return Map.of(
+                "updated", upserts.size(),
+                "results", results
+        );
+    }
 
+    @Transactional
+    public Map<String, Object> submitLesson(Long userId, ProgressSubmitRequest request) {
         Lesson lesson = lessonRepository.findById(request.getLessonId())
                 .orElseThrow(() -> new IllegalArgumentException("Lesson not found"));
 
-        Progress progress = progressRepository.findByUserIdAndLessonId(user.getId(), lesson.getId())
-                .orElseThrow(() -> new IllegalArgumentException("Please complete the lesson first"));
+        // 完成狀態可能還在 write-behind buffer 中, 先寫入再檢查
+        if (progressWriteBuffer.isEnabled()) {
+            progressWriteBuffer.flush(userId, lesson.getId());
+        }
 
-        // 交付單元並獲得經驗值
-        boolean success = progress.submit(lesson.getExperienceReward());
+        // 交付單元: 條件式 UPDATE, 只有已完成且未交付的進度會被更新
+        // 兩次同時點擊只有一次會成功, 不會重複發放經驗值
+        int experienceReward = lesson.getExperienceReward();
+        int updated = progressRepository.submitIfCompleted(userId, lesson.getId(), experienceReward);
 
-        if (!success) {
+        if (updated == 0) {
+            Progress progress = progressRepository.findByUserIdAndLessonId(userId, lesson.getId())
+                    .orElseThrow(() -> new IllegalArgumentException("Please complete the lesson first"));
             if (progress.getIsSubmitted()) {
                 throw new IllegalArgumentException("Lesson already submitted");
             } else {
@@ -82,16 +185,27 @@ public class ProgressService {
             }
         }
 
-        progressRepository.save(progress);
+        progressWriteBuffer.markSubmitted(userId, lesson.getId());
+        eventPublisher.publishEvent(new UserContentChangedEvent(userId));
 
-        // 增加經驗值並處理升級
-        UserDTO updatedUser = experienceService.addExperience(user, progress.getExperienceGained());
+        // 增加經驗值並處理升級 (同一個交易)
+        UserDTO updatedUser = experienceService.addExperience(userId, experienceReward);
 
         return Map.of(
                 "lessonId", lesson.getId(),
-                "experienceGained", progress.getExperienceGained(),
-                "isSubmitted", progress.getIsSubmitted(),
+                "experienceGained", experienceReward,
+                "isSubmitted", true,
                 "user", updatedUser
         );
     }
+
+    private Map<String, Object> toProgressResult(Long lessonId, ProgressWriteBuffer.Heartbeat heartbeat) {
+        return Map.of(
+                "lessonId", lessonId,
+                "progressPercentage", heartbeat.percentage(),
+                "lastPosition", heartbeat.position(),
+                "isCompleted", heartbeat.completed(),
+                "isSubmitted", heartbeat.submitted()
+        );
+    }
 }
@@ -0,0 +1,250 @@
+package com.waterball.lms.service;
+
+import com.waterball.lms.model.entity.Progress;
+import com.waterball.lms.repository.ProgressRepository;
+import com.waterball.lms.repository.ProgressRepositoryCustom;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Write-behind buffer for video progress heartbeats.
+ * <p>
+ * 播放器每 10 秒送一次進度, 同一 (user, lesson) 的 heartbeat 會在記憶體中合併,
+ * 只有最新的播放位置會在定期 flush 時批次寫入 progress 表。
+ * 已通過存取權限檢查的 (user, lesson) 會保留為 session, 後續 heartbeat 不必再查詢資料庫。
+ */
+@Slf4j
+@Component
+public class ProgressWriteBuffer {
+
+    private final ProgressRepository progressRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final boolean enabled;
+    private final long idleTimeoutMillis;
+    private final int flushBatchSize;
+
+    /**
+     * 最新已知的進度 (包含已寫入與尚未寫入的)
+     */
+    private final ConcurrentHashMap<Key, Heartbeat> sessions = new ConcurrentHashMap<>();
+
+    /**
+     * 尚未寫入資料庫的 key
+     */
+    private final Set<Key> dirty = ConcurrentHashMap.newKeySet();
+
+    public ProgressWriteBuffer(
+            ProgressRepository progressRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${progress.write-behind.enabled:false}") boolean enabled,
+            @Value("${progress.write-behind.idle-timeout:600000}") long idleTimeoutMillis,
+            @Value("${progress.write-behind.flush-batch-size:500}") int flushBatchSize) {
+        this.progressRepository = progressRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.flushBatchSize = flushBatchSize;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 合併一筆 heartbeat 到既有 session
+     *
+     * @return 合併後的進度; 若 session 不存在 (尚未檢查存取權限) 則回傳 empty
+     */
+    public Optional<Heartbeat> record(Long userId, Long lessonId, int position, int duration) {
+        Key key = new Key(userId, lessonId);
+        Heartbeat merged = sessions.computeIfPresent(key,
+                (k, current) -> Heartbeat.of(Math.max(current.position(), position), duration, current.submitted()));
+        if (merged == null) {
+            return Optional.empty();
+        }
+        dirty.add(key);
+        return Optional.of(merged);
+    }
+
+    /**
+     * 在存取權限檢查通過後建立 session 並記錄第一筆 heartbeat
+     *
+     * @param storedPosition 資料庫中的播放位置 (播放位置不會倒退)
+     * @param submitted      資料庫中是否已交付
+     */
+    public Heartbeat open(Long userId, Long lessonId, int storedPosition, boolean submitted,
+                          int position, int duration) {
+        Key key = new Key(userId, lessonId);
+        Heartbeat heartbeat = sessions.compute(key, (k, current) -> Heartbeat.of(
+                Math.max(current != null ? Math.max(current.position(), storedPosition) : storedPosition, position),
+                duration,
+                submitted || (current != null && current.submitted())));
+        dirty.add(key);
+        return heartbeat;
+    }
+
+    /**
+     * 取得最新已知的進度 (可能尚未寫入資料庫)
+     */
+    public Optional<Heartbeat> peek(Long userId, Long lessonId) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(sessions.get(new Key(userId, lessonId)));
+    }
+
+    /**
+     * 批次寫入 (已寫入資料庫) 後更新既有 session, 避免記憶體中較舊的進度蓋過資料庫的新值
+     * 不標記 dirty: 資料庫已是兩者中較遠的位置
+     */
+    public void merge(Long userId, Long lessonId, int position, int duration) {
+        sessions.computeIfPresent(new Key(userId, lessonId),
+                (k, current) -> Heartbeat.of(Math.max(current.position(), position), duration, current.submitted()));
+    }
+
+    /**
+     * 交付後更新 session 狀態, 避免回應中出現過期的 isSubmitted
+     */
+    public void markSubmitted(Long userId, Long lessonId) {
+        sessions.computeIfPresent(new Key(userId, lessonId),
+                (k, current) -> new Heartbeat(current.position(), current.duration(),
+                        current.percentage(), current.completed(), true, current.touchedAt()));
+    }
+
+    /**
+     * 立即寫入單一 (user, lesson) 的待寫入進度
+     * 交付單元前必須先呼叫, 否則完成狀態可能還停留在記憶體中
+     * <p>
+     * 與定期 flush 使用同一個鎖: 定期 flush 已取走 dirty 標記但尚未寫入時, 等待其寫入完成後才返回。
+     * 在呼叫端的交易中寫入 (REQUIRED), 失敗時重新標記 dirty 並丟出例外, 由呼叫端的交易 rollback。
+     * 呼叫端的交易之後 rollback (例如交付被拒絕) 時, 寫入一併被撤銷, 於交易結束後重新標記 dirty,
+     * 由下次定期 flush 寫入。
+     */
+    public synchronized void flush(Long userId, Long lessonId) {
+        Key key = new Key(userId, lessonId);
+        if (!dirty.remove(key)) {
+            return;
+        }
+        Heartbeat heartbeat = sessions.get(key);
+        if (heartbeat == null) {
+            return;
+        }
+        try {
+            upsert(List.of(new Pending(key, heartbeat)));
+        } catch (RuntimeException e) {
+            dirty.add(key);
+            throw e;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        dirty.add(key);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * 定期將所有待寫入進度批次寫入資料庫
+     */
+    @Scheduled(fixedDelayString = "${progress.write-behind.flush-interval:5000}")
+    public synchronized void flush() {
+        if (!enabled) {
+            return;
+        }
+
+        List<Pending> batch = new ArrayList<>();
+        for (Key key : dirty) {
+            // 先移除 dirty 再讀取 session: 之後進來的 heartbeat 會重新標記 dirty, 留待下次 flush
+            if (!dirty.remove(key)) {
+                continue;
+            }
+            Heartbeat heartbeat = sessions.get(key);
+            if (heartbeat != null) {
+                batch.add(new Pending(key, heartbeat));
+            }
+            if (batch.size() >= flushBatchSize) {
+                write(batch);
+                batch = new ArrayList<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            write(batch);
+        }
+
+        evictIdleSessions();
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        if (!enabled) {
+            return;
+        }
+        log.info("Flushing {} buffered progress heartbeats before shutdown", dirty.size());
+        flush();
+    }
+
+    // 定期 flush 使用: 不在其他交易中, 失敗時保留 dirty 留待下次重試
+    private void write(List<Pending> batch) {
+        try {
+            upsert(batch);
+        } catch (RuntimeException e) {
+            // 寫入失敗時重新標記, 下次 flush 重試
+            log.error("Failed to flush {} progress heartbeats: {}", batch.size(), e.getMessage());
+            batch.forEach(pending -> dirty.add(pending.key()));
+        }
+    }
+
+    private void upsert(List<Pending> batch) {
+        List<ProgressRepositoryCustom.ProgressUpsert> entries = batch.stream()
+                .map(pending -> new ProgressRepositoryCustom.ProgressUpsert(
+                        pending.key().userId(), pending.key().lessonId(),
+                        pending.heartbeat().position(), pending.heartbeat().duration()))
+                .toList();
+        transactionTemplate.executeWithoutResult(status -> progressRepository.batchUpsertProgress(entries));
+    }
+
+    private void evictIdleSessions() {
+        long cutoff = System.currentTimeMillis() - idleTimeoutMillis;
+        for (Key key : sessions.keySet()) {
+            sessions.computeIfPresent(key,
+                    (k, current) -> current.touchedAt() < cutoff && !dirty.contains(k) ? null : current);
+        }
+    }
+
+    record Key(Long userId, Long lessonId) {
+    }
+
+    private record Pending(Key key, Heartbeat heartbeat) {
+    }
+
+    /**
+     * 合併後的最新進度
+     */
+    public record Heartbeat(int position, int duration, int percentage, boolean completed,
+                            boolean submitted, long touchedAt) {
+
+        static Heartbeat of(int position, int duration, boolean submitted) {
+            int percentage = Progress.calculatePercentage(position, duration);
+            return new Heartbeat(position, duration, percentage, percentage >= 100, submitted,
+                    System.currentTimeMillis());
+        }
+    }
+}
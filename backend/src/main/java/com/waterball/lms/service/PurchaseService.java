@@ -1,18 +1,25 @@
 package com.waterball.lms.service;
 
+import com.waterball.lms.model.dto.CursorPage;
 import com.waterball.lms.model.dto.PurchaseDTO;
 import com.waterball.lms.model.entity.Course;
 import com.waterball.lms.model.entity.CoursePurchase;
 import com.waterball.lms.model.entity.User;
+import com.waterball.lms.model.event.CoursePurchasedEvent;
+import com.waterball.lms.model.event.UserContentChangedEvent;
 import com.waterball.lms.repository.CoursePurchaseRepository;
 import com.waterball.lms.repository.CourseRepository;
 import com.waterball.lms.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -24,22 +31,27 @@ import java.util.stream.Collectors;
 @Transactional(readOnly = true)
 public class PurchaseService {
 
+    // 批次檢查權限時一次最多的課程數
+    static final int MAX_ACCESS_CHECK_COURSES = 100;
+
     private final CoursePurchaseRepository purchaseRepository;
     private final UserRepository userRepository;
     private final CourseRepository courseRepository;
+    private final EntitlementCache entitlementCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Purchase a course (mock payment for MVP)
      *
-     * @param userEmail User email
-     * @param courseId  Course ID
+     * @param userId   User ID
+     * @param courseId Course ID
      * @return Purchase DTO
      * @throws IllegalArgumentException if user/course not found
      * @throws IllegalStateException    if course already purchased or is free
      */
     @Transactional
-    public PurchaseDTO purchaseCourse(String userEmail, Long courseId) {
-        User user = userRepository.findByEmail(userEmail)
+    public PurchaseDTO purchaseCourse(Long userId, Long courseId) {
+        User user = userRepository.findById(userId)
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
 
         Course course = courseRepository.findById(courseId)
@@ -66,6 +78,8 @@ public class PurchaseService {
                 .build();
 
         purchase = purchaseRepository.save(purchase);
+        eventPublisher.publishEvent(new CoursePurchasedEvent(user.getId(), courseId));
+        eventPublisher.publishEvent(new UserContentChangedEvent(user.getId()));
 
         // Note: Role upgrade is NOT automatic per requirements
         // Admin must manually grant PAID role if needed
@@ -88,37 +102,92 @@ public class PurchaseService {
      * Check if user has access to a course
      * Access rules: Free course OR already purchased
      * Note: User role (FREE/PAID) is NOT checked per requirements
+     * Answered from in-memory bitmaps, see {@link EntitlementCache}
      *
      * @param userId   User ID
      * @param courseId Course ID
      * @return true if user can access, false otherwise
+     * @throws IllegalArgumentException if course not found
      */
     public boolean hasAccess(Long userId, Long courseId) {
-        Course course = courseRepository.findById(courseId)
-                .orElseThrow(() -> new IllegalArgumentException("Course not found"));
+        return entitlementCache.hasAccess(userId, courseId);
+    }
 
-        // Free courses are accessible to everyone
-        if (!course.getIsPremium()) {
-            return true;
+    /**
+     * Check access to several courses at once (catalog page badges)
+     * Premium flags come from the catalog snapshot, purchases from one cached per-user lookup
+     *
+     * @param userId    User ID
+     * @param courseIds Course IDs (at most 100, duplicates ignored)
+     * @return course ID → access, in request order
+     * @throws IllegalArgumentException if any course not found or too many course IDs
+     */
+    public Map<Long, Boolean> getAccess(Long userId, List<Long> courseIds) {
+        List<Long> distinct = courseIds.stream().distinct().toList();
+        if (distinct.size() > MAX_ACCESS_CHECK_COURSES) {
+            throw new IllegalArgumentException("Too many course IDs (max " + MAX_ACCESS_CHECK_COURSES + ")");
         }
-
-        // Premium courses require purchase
-        return hasPurchased(userId, courseId);
+        return entitlementCache.hasAccess(userId, distinct);
     }
 
     /**
      * Get all purchases for a user
      *
-     * @param userEmail User email
+     * @param userId User ID
      * @return List of purchase DTOs
      */
-    public List<PurchaseDTO> getMyPurchases(String userEmail) {
-        User user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+    public List<PurchaseDTO> getMyPurchases(Long userId) {
+        return purchaseRepository.findByUserId(userId).stream()
+                .map(PurchaseDTO::from)
+                .collect(Collectors.toList());
+    }
 
-        return purchaseRepository.findByUserId(user.getId()).stream()
+    /**
+     * Get one page of purchases for a user, newest first
+     * Keyset pagination on (purchase_date DESC, id DESC), no OFFSET scans
+     *
+     * @param userId User ID
+     * @param cursor Continuation token from the previous page, or null for the first page
+     * @param limit  Page size (clamped to 1..100)
+     * @return Page of purchase DTOs with the next continuation token
+     * @throws IllegalArgumentException if cursor is invalid
+     */
+    public CursorPage<PurchaseDTO> getMyPurchasesPage(Long userId, String cursor, Integer limit) {
+        int size = CursorPage.clampLimit(limit);
+        // 多取一筆判斷是否還有下一頁
+        PageRequest firstPage = PageRequest.of(0, size + 1);
+
+        List<CoursePurchase> purchases;
+        if (cursor == null) {
+            purchases = purchaseRepository.findFirstPageByUserId(userId, firstPage);
+        } else {
+            String[] keys = ContinuationToken.decode(cursor, 2);
+            LocalDateTime purchaseDate;
+            Long id;
+            try {
+                purchaseDate = LocalDateTime.parse(keys[0]);
+                id = Long.parseLong(keys[1]);
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            purchases = purchaseRepository.findPageByUserIdAfter(userId, purchaseDate, id, firstPage);
+        }
+
+        boolean hasNext = purchases.size() > size;
+        List<PurchaseDTO> items = purchases.stream()
+                .limit(size)
                 .map(PurchaseDTO::from)
                 .collect(Collectors.toList());
+
+        String nextCursor = null;
+        if (hasNext) {
+            PurchaseDTO last = items.get(items.size() - 1);
+            nextCursor = ContinuationToken.encode(last.getPurchaseDate(), last.getId());
+        }
+        return CursorPage.<PurchaseDTO>builder()
+                .items(items)
+                .nextCursor(nextCursor)
+                .build();
     }
 
     /**
@@ -0,0 +1,172 @@
+package com.waterball.lms.service;
+
+import com.waterball.lms.model.dto.AuthResponse;
+import com.waterball.lms.model.dto.UserDTO;
+import com.waterball.lms.model.entity.RefreshToken;
+import com.waterball.lms.model.entity.User;
+import com.waterball.lms.repository.RefreshTokenRepository;
+import com.waterball.lms.security.JwtTokenProvider;
+import com.waterball.lms.security.TokenRevocationList;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Service for issuing and rotating refresh tokens
+ * <p>
+ * 登入/註冊時建立一個 session, 回傳短效期的 access token 與 refresh token。
+ * refresh token 每次使用後輪替 (舊的立即失效), 換發只需查詢資料庫, 不需要 BCrypt。
+ * 已輪替的 token 再次被使用代表可能外洩, 撤銷整個 session, 該 session 的 access token 也一併失效。
+ * 例外: 輪替後 reuse-grace 毫秒內的重複使用 (多個分頁同時換發) 只拒絕該次請求, 不撤銷 session。
+ */
+@Slf4j
+@Service
+public class RefreshTokenService {
+
+    static final String INVALID_REFRESH_TOKEN = "Invalid refresh token";
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final JwtTokenProvider jwtTokenProvider;
+    private final TokenRevocationList tokenRevocationList;
+    private final long refreshValidityInMilliseconds;
+    private final long reuseGraceInMilliseconds;
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               JwtTokenProvider jwtTokenProvider,
+                               TokenRevocationList tokenRevocationList,
+                               @Value("${jwt.refresh-expiration:1209600000}") long refreshValidityInMilliseconds,
+                               @Value("${jwt.refresh-reuse-grace:10000}") long reuseGraceInMilliseconds) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.jwtTokenProvider = jwtTokenProvider;
+        this.tokenRevocationList = tokenRevocationList;
+        this.refreshValidityInMilliseconds = refreshValidityInMilliseconds;
+        this.reuseGraceInMilliseconds = reuseGraceInMilliseconds;
+    }
+
+    /**
+     * 建立新的 session (登入/註冊成功後呼叫)
+     */
+    @Transactional
+    public AuthResponse issue(User user) {
+        return respond(user, UUID.randomUUID().toString(), LocalDateTime.now());
+    }
+
+    /**
+     * 以 refresh token 換發新的 access token 與 refresh token
+     * <p>
+     * 偵測到重複使用時撤銷 session 後丟出例外, 撤銷不隨例外 rollback。
+     *
+     * @throws IllegalArgumentException if the token is unknown, expired, rotated or revoked
+     */
+    @Transactional(noRollbackFor = IllegalArgumentException.class)
+    public AuthResponse refresh(String refreshToken) {
+        LocalDateTime now = LocalDateTime.now();
+        RefreshToken token = refreshTokenRepository.findByTokenHash(hash(refreshToken))
+                .orElseThrow(() -> new IllegalArgumentException(INVALID_REFRESH_TOKEN));
+
+        if (token.getRevokedAt() != null || !token.getExpiresAt().isAfter(now)) {
+            throw new IllegalArgumentException(INVALID_REFRESH_TOKEN);
+        }
+        if (token.getRotatedAt() != null) {
+            if (token.getRotatedAt().plusNanos(reuseGraceInMilliseconds * 1_000_000).isAfter(now)) {
+                // 剛輪替不久: 另一個分頁先換發成功, 只拒絕這次請求
+                log.debug("Refresh token of session {} reused within grace window", token.getSessionId());
+                throw new IllegalArgumentException(INVALID_REFRESH_TOKEN);
+            }
+            log.warn("Refresh token reuse detected, revoking session {}", token.getSessionId());
+            revokeSession(token.getSessionId(), now);
+            throw new IllegalArgumentException(INVALID_REFRESH_TOKEN);
+        }
+        // 條件式更新: 同一個 token 只有一個請求能輪替成功; 查詢後才被輪替代表同時換發, 只拒絕這次請求
+        if (refreshTokenRepository.rotate(token.getId(), now) == 0) {
+            log.debug("Concurrent refresh of session {} lost the rotation race", token.getSessionId());
+            throw new IllegalArgumentException(INVALID_REFRESH_TOKEN);
+        }
+
+        return respond(token.getUser(), token.getSessionId(), now);
+    }
+
+    /**
+     * 登出: 撤銷 refresh token 所屬的 session (未知的 token 直接忽略)
+     */
+    @Transactional
+    public void revoke(String refreshToken) {
+        refreshTokenRepository.findByTokenHash(hash(refreshToken))
+                .filter(token -> token.getRevokedAt() == null)
+                .ifPresent(token -> revokeSession(token.getSessionId(), LocalDateTime.now()));
+    }
+
+    /**
+     * 定期刪除已過期的 refresh token
+     */
+    @Scheduled(fixedDelayString = "${jwt.refresh-cleanup-interval:3600000}",
+            initialDelayString = "${jwt.refresh-cleanup-interval:3600000}")
+    @Transactional
+    public void deleteExpired() {
+        int deleted = refreshTokenRepository.deleteExpiredBefore(LocalDateTime.now());
+        if (deleted > 0) {
+            log.debug("Deleted {} expired refresh tokens", deleted);
+        }
+    }
+
+    private AuthResponse respond(User user, String sessionId, LocalDateTime now) {
+        String refreshToken = generateToken();
+        refreshTokenRepository.save(RefreshToken.builder()
+                .user(user)
+                .sessionId(sessionId)
+                .tokenHash(hash(refreshToken))
+                .expiresAt(now.plusNanos(refreshValidityInMilliseconds * 1_000_000))
+                .build());
+
+        String accessToken = jwtTokenProvider.createToken(user.getId(), user.getEmail(), user.getRole().name(), sessionId);
+        return AuthResponse.of(accessToken, jwtTokenProvider.getValidityInMilliseconds() / 1000, refreshToken,
+                UserDTO.from(user));
+    }
+
+    /**
+     * 撤銷 session; 記憶體中的撤銷清單在交易 commit 後才更新, commit 失敗時不會拒絕仍有效的 session
+     */
+    private void revokeSession(String sessionId, LocalDateTime now) {
+        refreshTokenRepository.revokeSession(sessionId, now);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            tokenRevocationList.revoke(sessionId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                tokenRevocationList.revoke(sessionId);
+            }
+        });
+    }
+
+    private static String generateToken() {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.waterball.lms.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index with BM25 ranking.
+ * <p>
+ * 斷詞: 英數字以連續字元為一個 token (轉小寫, NFKC 正規化);
+ * 中日韓文字以 bigram 切分 (「課程介紹」→「課程」「程介」「介紹」), 單一字元時保留 unigram。
+ * 建立索引時另外為多字的中日韓文字加入每個字的 unigram, 單字查詢 (「課」) 也能找到;
+ * unigram 不計入文件長度, 多字查詢的排序不受影響。
+ * 每個文件由多個欄位組成, 欄位權重乘在詞頻與文件長度上 (BM25F 的簡化版本)。
+ * 讀取使用 read lock, 新增/移除文件使用 write lock。
+ */
+public class SearchIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private final Map<String, Map<String, Double>> postings = new HashMap<>();
+    private final Map<String, Document> documents = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private double totalLength;
+
+    /**
+     * 新增或取代文件
+     */
+    public void put(String key, List<Field> fields) {
+        Map<String, Double> frequencies = new HashMap<>();
+        double length = 0;
+        for (Field field : fields) {
+            List<String> unigrams = new ArrayList<>();
+            for (String token : tokenize(field.text(), unigrams)) {
+                frequencies.merge(token, field.weight(), Double::sum);
+                length += field.weight();
+            }
+            for (String unigram : unigrams) {
+                frequencies.merge(unigram, field.weight(), Double::sum);
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(key);
+            if (frequencies.isEmpty()) {
+                return;
+            }
+            frequencies.forEach((term, frequency) ->
+                    postings.computeIfAbsent(term, t -> new HashMap<>()).put(key, frequency));
+            documents.put(key, new Document(length, frequencies.keySet()));
+            totalLength += length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String key) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(key);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 以 BM25 排序搜尋 (任一 token 符合即列入), 回傳分數最高的 limit 筆
+     */
+    public List<Hit> search(String query, int limit) {
+        Set<String> terms = new LinkedHashSet<>(tokenize(query));
+        if (terms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        Map<String, Double> scores = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            int documentCount = documents.size();
+            if (documentCount == 0) {
+                return List.of();
+            }
+            double averageLength = totalLength / documentCount;
+
+            for (String term : terms) {
+                Map<String, Double> matches = postings.get(term);
+                if (matches == null) {
+                    continue;
+                }
+                double idf = Math.log(1 + (documentCount - matches.size() + 0.5) / (matches.size() + 0.5));
+                matches.forEach((key, frequency) -> {
+                    double length = documents.get(key).length();
+                    double norm = K1 * (1 - B + B * length / averageLength);
+                    scores.merge(key, idf * frequency * (K1 + 1) / (frequency + norm), Double::sum);
+                });
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // 只保留前 limit 名 (min-heap)
+        Comparator<Hit> order = Comparator.comparingDouble(Hit::score).thenComparing(Hit::key, Comparator.reverseOrder());
+        PriorityQueue<Hit> top = new PriorityQueue<>(limit + 1, order);
+        scores.forEach((key, score) -> {
+            top.offer(new Hit(key, score));
+            if (top.size() > limit) {
+                top.poll();
+            }
+        });
+        List<Hit> result = new ArrayList<>(top);
+        result.sort(order.reversed());
+        return result;
+    }
+
+    private void removeLocked(String key) {
+        Document existing = documents.remove(key);
+        if (existing == null) {
+            return;
+        }
+        totalLength -= existing.length();
+        for (String term : existing.terms()) {
+            Map<String, Double> matches = postings.get(term);
+            if (matches != null) {
+                matches.remove(key);
+                if (matches.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    /**
+     * 將文字切成 token: 英數字為單字, 中日韓文字為 bigram
+     */
+    static List<String> tokenize(String text) {
+        return tokenize(text, null);
+    }
+
+    /**
+     * @param unigrams 不為 null 時, 另外收集多字中日韓文字的每個字 (建立索引用)
+     */
+    private static List<String> tokenize(String text, List<String> unigrams) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+
+        List<String> tokens = new ArrayList<>();
+        StringBuilder word = new StringBuilder();
+        List<Integer> cjkRun = new ArrayList<>();
+        int i = 0;
+        while (i < normalized.length()) {
+            int codePoint = normalized.codePointAt(i);
+            i += Character.charCount(codePoint);
+
+            if (isCjk(codePoint)) {
+                flushWord(word, tokens);
+                cjkRun.add(codePoint);
+            } else if (Character.isLetterOrDigit(codePoint)) {
+                flushCjk(cjkRun, tokens, unigrams);
+                word.appendCodePoint(codePoint);
+            } else {
+                flushWord(word, tokens);
+                flushCjk(cjkRun, tokens, unigrams);
+            }
+        }
+        flushWord(word, tokens);
+        flushCjk(cjkRun, tokens, unigrams);
+        return tokens;
+    }
+
+    private static boolean isCjk(int codePoint) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+
+    private static void flushWord(StringBuilder word, List<String> tokens) {
+        if (!word.isEmpty()) {
+            tokens.add(word.toString());
+            word.setLength(0);
+        }
+    }
+
+    private static void flushCjk(List<Integer> run, List<String> tokens, List<String> unigrams) {
+        if (run.size() == 1) {
+            tokens.add(new String(Character.toChars(run.get(0))));
+        } else if (unigrams != null) {
+            run.forEach(codePoint -> unigrams.add(new String(Character.toChars(codePoint))));
+        }
+        for (int i = 0; i + 1 < run.size(); i++) {
+            tokens.add(new StringBuilder(4).appendCodePoint(run.get(i)).appendCodePoint(run.get(i + 1)).toString());
+        }
+        run.clear();
+    }
+
+    private record Document(double length, Set<String> terms) {
+    }
+
+    /**
+     * 文件欄位
+     *
+     * @param text   欄位內容
+     * @param weight 權重 (標題高於內文)
+     */
+    public record Field(String text, double weight) {
+    }
+
+    /**
+     * 搜尋結果
+     */
+    public record Hit(String key, double score) {
+    }
+}
@@ -0,0 +1,193 @@
+package com.waterball.lms.service;
+
+import com.waterball.lms.model.dto.SearchResultDTO;
+import com.waterball.lms.model.entity.Course;
+import com.waterball.lms.model.entity.Lesson;
+import com.waterball.lms.model.event.CatalogChangedEvent;
+import com.waterball.lms.repository.CourseRepository;
+import com.waterball.lms.repository.LessonRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Full-text search over published courses and lessons
+ * <p>
+ * 啟動時建立 {@link SearchIndex}, 之後依 {@link CatalogChangedEvent} 只重新索引變更的課程/單元 (交易 commit 後);
+ * 另外定期完整重建, 以涵蓋直接以 SQL 修改資料的情況。
+ * 只索引已發布課程與其已發布單元。
+ */
+@Slf4j
+@Service
+public class SearchService {
+
+    private static final int MAX_LIMIT = 50;
+    private static final int MAX_QUERY_LENGTH = 100;
+
+    // 欄位權重: 標題 > 描述 > 內文
+    private static final double TITLE_WEIGHT = 3.0;
+    private static final double DESCRIPTION_WEIGHT = 1.5;
+    private static final double CONTENT_WEIGHT = 1.0;
+
+    private final CourseRepository courseRepository;
+    private final LessonRepository lessonRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private volatile SearchIndex index = new SearchIndex();
+    private volatile Map<String, SearchResultDTO> entries = new ConcurrentHashMap<>();
+
+    public SearchService(CourseRepository courseRepository,
+                         LessonRepository lessonRepository,
+                         PlatformTransactionManager transactionManager) {
+        this.courseRepository = courseRepository;
+        this.lessonRepository = lessonRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * 搜尋課程與單元, 依 BM25 分數排序
+     */
+    public List<SearchResultDTO> search(String query, int limit) {
+        if (query == null || query.isBlank()) {
+            return List.of();
+        }
+        String trimmed = query.strip();
+        if (trimmed.length() > MAX_QUERY_LENGTH) {
+            trimmed = trimmed.substring(0, MAX_QUERY_LENGTH);
+        }
+
+        Map<String, SearchResultDTO> currentEntries = entries;
+        return index.search(trimmed, Math.max(1, Math.min(MAX_LIMIT, limit))).stream()
+                .map(hit -> {
+                    SearchResultDTO entry = currentEntries.get(hit.key());
+                    return entry != null ? entry.toBuilder().score(hit.score()).build() : null;
+                })
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    /**
+     * 完整重建索引 (建立新的 index 後原子替換)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${search.rebuild-interval:3600000}",
+            initialDelayString = "${search.rebuild-interval:3600000}")
+    public synchronized void rebuild() {
+        SearchIndex nextIndex = new SearchIndex();
+        Map<String, SearchResultDTO> nextEntries = new ConcurrentHashMap<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            for (Course course : courseRepository.findAllByIsPublishedTrueOrderByDisplayOrderAsc()) {
+                indexCourse(nextIndex, nextEntries, course);
+            }
+            for (Lesson lesson : lessonRepository.findAllSearchable()) {
+                indexLesson(nextIndex, nextEntries, lesson);
+            }
+        });
+        index = nextIndex;
+        entries = nextEntries;
+        log.info("Search index rebuilt: {} documents", nextIndex.size());
+    }
+
+    /**
+     * 課程/單元變更 commit 後只重新索引該筆資料
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onCatalogChanged(CatalogChangedEvent event) {
+        SearchIndex currentIndex = index;
+        Map<String, SearchResultDTO> currentEntries = entries;
+        transactionTemplate.executeWithoutResult(status -> {
+            if (event.type() == CatalogChangedEvent.Type.COURSE) {
+                reindexCourse(currentIndex, currentEntries, event.id());
+            } else {
+                reindexLesson(currentIndex, currentEntries, event.id());
+            }
+        });
+    }
+
+    // 課程的發布狀態會影響其單元是否可被搜尋, 因此一併重新索引單元
+    private void reindexCourse(SearchIndex target, Map<String, SearchResultDTO> targetEntries, Long courseId) {
+        currentLessonKeys(targetEntries, courseId).forEach(key -> {
+            target.remove(key);
+            targetEntries.remove(key);
+        });
+
+        Course course = courseRepository.findById(courseId).orElse(null);
+        if (course == null || !Boolean.TRUE.equals(course.getIsPublished())) {
+            target.remove(courseKey(courseId));
+            targetEntries.remove(courseKey(courseId));
+            return;
+        }
+        indexCourse(target, targetEntries, course);
+        for (Lesson lesson : lessonRepository.findByCourseIdAndIsPublishedTrueOrderByDisplayOrderAsc(courseId)) {
+            indexLesson(target, targetEntries, lesson);
+        }
+    }
+
+    private void reindexLesson(SearchIndex target, Map<String, SearchResultDTO> targetEntries, Long lessonId) {
+        Lesson lesson = lessonRepository.findById(lessonId).orElse(null);
+        if (lesson == null
+                || !Boolean.TRUE.equals(lesson.getIsPublished())
+                || !Boolean.TRUE.equals(lesson.getCourse().getIsPublished())) {
+            target.remove(lessonKey(lessonId));
+            targetEntries.remove(lessonKey(lessonId));
+            return;
+        }
+        indexLesson(target, targetEntries, lesson);
+    }
+
+    private static List<String> currentLessonKeys(Map<String, SearchResultDTO> targetEntries, Long courseId) {
+        return targetEntries.entrySet().stream()
+                .filter(entry -> "LESSON".equals(entry.getValue().getType())
+                        && courseId.equals(entry.getValue().getCourseId()))
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    private static void indexCourse(SearchIndex target, Map<String, SearchResultDTO> targetEntries, Course course) {
+        String key = courseKey(course.getId());
+        target.put(key, List.of(
+                new SearchIndex.Field(course.getTitle(), TITLE_WEIGHT),
+                new SearchIndex.Field(course.getDescription(), DESCRIPTION_WEIGHT)));
+        targetEntries.put(key, SearchResultDTO.builder()
+                .type("COURSE")
+                .id(course.getId())
+                .courseId(course.getId())
+                .title(course.getTitle())
+                .build());
+    }
+
+    private static void indexLesson(SearchIndex target, Map<String, SearchResultDTO> targetEntries, Lesson lesson) {
+        String key = lessonKey(lesson.getId());
+        target.put(key, List.of(
+                new SearchIndex.Field(lesson.getTitle(), TITLE_WEIGHT),
+                new SearchIndex.Field(lesson.getDescription(), DESCRIPTION_WEIGHT),
+                new SearchIndex.Field(lesson.getContent(), CONTENT_WEIGHT)));
+        targetEntries.put(key, SearchResultDTO.builder()
+                .type("LESSON")
+                .id(lesson.getId())
+                .courseId(lesson.getCourse().getId())
+                .title(lesson.getTitle())
+                .build());
+    }
+
+    private static String courseKey(Long courseId) {
+        return "course:" + courseId;
+    }
+
+    private static String lessonKey(Long lessonId) {
+        return "lesson:" + lessonId;
+    }
+}
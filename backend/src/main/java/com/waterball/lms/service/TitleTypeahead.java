@@ -0,0 +1,169 @@
+package com.waterball.lms.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable prefix trie over titles with precomputed top-k suggestions per node.
+ * <p>
+ * 每個標題以「整個標題」與「每個單字開頭」作為 key 插入 (NFKC、小寫、空白合併),
+ * 因此輸入 "boot" 也能找到 "Spring Boot 實戰"。建立時依排名順序插入,
+ * 每個節點只保留最先抵達的 k 個建議, 查詢只需沿著前綴走到節點並回傳其 top-k,
+ * 不需要走訪子樹。建立後不再修改, 可安全地被多執行緒同時讀取。
+ */
+public final class TitleTypeahead {
+
+    // key 最長長度, 更長的前綴只比對前 MAX_KEY_LENGTH 個字元
+    static final int MAX_KEY_LENGTH = 48;
+
+    private static final TitleTypeahead EMPTY = new TitleTypeahead(List.of(), new Node(new char[0], new Node[0], new int[0]));
+
+    private final List<Suggestion> suggestions;
+    private final Node root;
+
+    private TitleTypeahead(List<Suggestion> suggestions, Node root) {
+        this.suggestions = suggestions;
+        this.root = root;
+    }
+
+    public static TitleTypeahead empty() {
+        return EMPTY;
+    }
+
+    /**
+     * 建立 trie
+     *
+     * @param ranked 依排名排序的建議 (排名高者在前)
+     * @param k      每個節點保留的建議數
+     */
+    public static TitleTypeahead build(List<Suggestion> ranked, int k) {
+        MutableNode root = new MutableNode();
+        for (int index = 0; index < ranked.size(); index++) {
+            String title = normalize(ranked.get(index).title());
+            for (int start : keyStarts(title)) {
+                String key = title.substring(start, Math.min(title.length(), start + MAX_KEY_LENGTH));
+                insert(root, key, index, k);
+            }
+        }
+        return new TitleTypeahead(List.copyOf(ranked), root.freeze());
+    }
+
+    /**
+     * 取得前綴符合的建議 (最多 k 筆)
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty()) {
+            return List.of();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            key = key.substring(0, MAX_KEY_LENGTH);
+        }
+
+        Node node = root;
+        for (int i = 0; i < key.length() && node != null; i++) {
+            node = node.child(key.charAt(i));
+        }
+        if (node == null) {
+            return List.of();
+        }
+
+        int count = Math.min(limit, node.top().length);
+        List<Suggestion> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(suggestions.get(node.top()[i]));
+        }
+        return result;
+    }
+
+    private static void insert(MutableNode root, String key, int suggestion, int k) {
+        MutableNode node = root;
+        for (int i = 0; i < key.length(); i++) {
+            node = node.children.computeIfAbsent(key.charAt(i), c -> new MutableNode());
+            // 依排名順序插入, 最先抵達的 k 個即為 top-k
+            if (node.top.size() < k && !node.top.contains(suggestion)) {
+                node.top.add(suggestion);
+            }
+        }
+    }
+
+    // 標題開頭與每個單字的開頭 (前一個字元為空白或標點)
+    private static List<Integer> keyStarts(String title) {
+        List<Integer> starts = new ArrayList<>();
+        for (int i = 0; i < title.length(); i++) {
+            boolean wordStart = i == 0 || !Character.isLetterOrDigit(title.charAt(i - 1));
+            if (wordStart && Character.isLetterOrDigit(title.charAt(i))) {
+                starts.add(i);
+            }
+        }
+        if (starts.isEmpty() && !title.isEmpty()) {
+            starts.add(0);
+        }
+        return starts;
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return Normalizer.normalize(text, Normalizer.Form.NFKC)
+                .toLowerCase(Locale.ROOT)
+                .strip()
+                .replaceAll("\\s+", " ");
+    }
+
+    /**
+     * 建議項目
+     *
+     * @param type     COURSE 或 LESSON
+     * @param id       課程或單元 ID
+     * @param courseId 所屬課程 ID
+     * @param title    標題 (原始大小寫)
+     */
+    public record Suggestion(String type, Long id, Long courseId, String title) {
+    }
+
+    /**
+     * Frozen node: children sorted by label for binary search
+     */
+    private record Node(char[] labels, Node[] children, int[] top) {
+
+        Node child(char label) {
+            int low = 0;
+            int high = labels.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (labels[mid] < label) {
+                    low = mid + 1;
+                } else if (labels[mid] > label) {
+                    high = mid - 1;
+                } else {
+                    return children[mid];
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final class MutableNode {
+
+        private final TreeMap<Character, MutableNode> children = new TreeMap<>();
+        private final List<Integer> top = new ArrayList<>(2);
+
+        Node freeze() {
+            char[] labels = new char[children.size()];
+            Node[] frozen = new Node[children.size()];
+            int i = 0;
+            for (Map.Entry<Character, MutableNode> entry : children.entrySet()) {
+                labels[i] = entry.getKey();
+                frozen[i] = entry.getValue().freeze();
+                i++;
+            }
+            return new Node(labels, frozen, top.stream().mapToInt(Integer::intValue).toArray());
+        }
+    }
+}
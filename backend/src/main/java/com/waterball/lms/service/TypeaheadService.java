@@ -0,0 +1,81 @@
+package com.waterball.lms.service;
+
+import com.waterball.lms.model.dto.CourseDTO;
+import com.waterball.lms.model.dto.LessonDTO;
+import com.waterball.lms.model.dto.SearchResultDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Title autocomplete for the search box
+ * <p>
+ * 由 catalog snapshot 中已發布的課程與單元標題建立 {@link TitleTypeahead},
+ * catalog 版本變更時重建; 每次查詢只走訪 trie, 不查詢資料庫。
+ * 排名: 課程在單元之前, 其次為較短的標題。
+ */
+@Service
+@RequiredArgsConstructor
+public class TypeaheadService {
+
+    static final int MAX_SUGGESTIONS = 10;
+
+    private static final Comparator<Candidate> RANKING = Comparator
+            .comparingInt(Candidate::typeOrder)
+            .thenComparingInt(candidate -> candidate.suggestion().title().length())
+            .thenComparing(candidate -> candidate.suggestion().title());
+
+    private final CourseCatalog courseCatalog;
+
+    private final AtomicReference<Built> current = new AtomicReference<>();
+
+    /**
+     * 取得前綴符合的標題建議 (score 固定為 null)
+     */
+    public List<SearchResultDTO> suggest(String prefix, int limit) {
+        return typeahead().suggest(prefix, Math.max(1, Math.min(MAX_SUGGESTIONS, limit))).stream()
+                .map(suggestion -> SearchResultDTO.builder()
+                        .type(suggestion.type())
+                        .id(suggestion.id())
+                        .courseId(suggestion.courseId())
+                        .title(suggestion.title())
+                        .build())
+                .toList();
+    }
+
+    private TitleTypeahead typeahead() {
+        CourseCatalog.Snapshot snapshot = courseCatalog.current();
+        Built built = current.get();
+        if (built != null && built.version() >= snapshot.version()) {
+            return built.typeahead();
+        }
+        Built next = new Built(snapshot.version(), build(snapshot));
+        return current.accumulateAndGet(next,
+                (existing, candidate) -> existing != null && existing.version() >= candidate.version()
+                        ? existing : candidate).typeahead();
+    }
+
+    private static TitleTypeahead build(CourseCatalog.Snapshot snapshot) {
+        List<Candidate> candidates = new ArrayList<>();
+        for (CourseDTO course : snapshot.courses()) {
+            candidates.add(new Candidate(0, new TitleTypeahead.Suggestion(
+                    "COURSE", course.getId(), course.getId(), course.getTitle())));
+            for (LessonDTO lesson : snapshot.lessons(course.getId())) {
+                candidates.add(new Candidate(1, new TitleTypeahead.Suggestion(
+                        "LESSON", lesson.getId(), course.getId(), lesson.getTitle())));
+            }
+        }
+        candidates.sort(RANKING);
+        return TitleTypeahead.build(candidates.stream().map(Candidate::suggestion).toList(), MAX_SUGGESTIONS);
+    }
+
+    private record Candidate(int typeOrder, TitleTypeahead.Suggestion suggestion) {
+    }
+
+    private record Built(long version, TitleTypeahead typeahead) {
+    }
+}
@@ -0,0 +1,34 @@
+package com.waterball.lms.service;
+
+import com.waterball.lms.model.event.UserContentChangedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-user version of progress and course access, used to build lesson list ETags
+ * <p>
+ * 版本只存在記憶體中: 以啟動時間作為 epoch, 重啟後產生的版本不會與先前發出的 ETag 相同。
+ * 變更在交易 commit 後才遞增, 因此不會有「新版本號 + 舊內容」的回應。
+ */
+@Component
+public class UserContentVersions {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong sequence = new AtomicLong();
+    private final ConcurrentHashMap<Long, Long> versions = new ConcurrentHashMap<>();
+
+    /**
+     * 取得用戶目前的版本 (不查詢資料庫)
+     */
+    public String versionOf(Long userId) {
+        return epoch + "." + Long.toString(versions.getOrDefault(userId, 0L), 36);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserContentChanged(UserContentChangedEvent event) {
+        versions.put(event.userId(), sequence.incrementAndGet());
+    }
+}
@@ -0,0 +1,148 @@
+package com.waterball.lms.service;
+
+import com.waterball.lms.model.dto.UserDTO;
+import com.waterball.lms.model.event.UserProfileChangedEvent;
+import com.waterball.lms.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Bounded, TTL-capped cache of {@link UserDTO} keyed by user ID
+ * <p>
+ * /api/auth/me 與課程播放頁的用戶資料由此提供。以 LRU 限制筆數, 每筆最多保留 ttl 毫秒;
+ * 經驗值、角色或個人資料變更 ({@link UserProfileChangedEvent}) commit 後立即移除該用戶。
+ * 快取分散在最多 {@value #MAX_STRIPES} 個 stripe, 各自加鎖, 不同用戶的請求不會互相等待。
+ * 每次載入在 stripe 中登記一個 load token, 失效時移除該用戶的 token;
+ * 載入期間該用戶若發生失效, 載入結果不會寫入快取, 其他用戶的失效不受影響。
+ * 命中/未命中次數記錄在 user.profile.cache.requests (tag result=hit|miss)。
+ */
+@Component
+public class UserProfileCache {
+
+    static final int MAX_STRIPES = 64;
+
+    private final UserRepository userRepository;
+    private final long ttlMillis;
+
+    private final Stripe[] stripes;
+    private final Counter hits;
+    private final Counter misses;
+
+    public UserProfileCache(UserRepository userRepository,
+                            MeterRegistry meterRegistry,
+                            @Value("${user.profile-cache.max-entries:10000}") int maxEntries,
+                            @Value("${user.profile-cache.ttl:60000}") long ttlMillis) {
+        this.userRepository = userRepository;
+        this.ttlMillis = ttlMillis;
+        // stripe 數為 2 的次方且不超過上限筆數, 總筆數不會超過 maxEntries
+        int stripeCount = Integer.highestOneBit(Math.max(1, Math.min(MAX_STRIPES, maxEntries)));
+        int perStripe = Math.max(0, maxEntries) / stripeCount;
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe(perStripe);
+        }
+        this.hits = Counter.builder("user.profile.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("user.profile.cache.requests").tag("result", "miss").register(meterRegistry);
+        Gauge.builder("user.profile.cache.size", this, UserProfileCache::size).register(meterRegistry);
+    }
+
+    /**
+     * 取得用戶資料 (回傳複本, 可自由修改)
+     *
+     * @return 用戶資料, 用戶不存在時為 empty
+     */
+    public Optional<UserDTO> get(Long userId) {
+        long now = System.currentTimeMillis();
+        Stripe stripe = stripeFor(userId);
+        Object loadToken = new Object();
+        synchronized (stripe) {
+            Entry cached = stripe.profiles.get(userId);
+            if (cached != null && now < cached.expiresAt()) {
+                hits.increment();
+                return Optional.of(copy(cached.user()));
+            }
+            stripe.loading.put(userId, loadToken);
+        }
+        misses.increment();
+
+        Optional<UserDTO> loaded;
+        try {
+            loaded = userRepository.findById(userId).map(UserDTO::from);
+        } catch (RuntimeException e) {
+            synchronized (stripe) {
+                stripe.loading.remove(userId, loadToken);
+            }
+            throw e;
+        }
+        synchronized (stripe) {
+            // token 已被失效移除 (或被較新的載入取代) 時不寫入
+            if (stripe.loading.remove(userId, loadToken) && loaded.isPresent()) {
+                stripe.profiles.put(userId, new Entry(copy(loaded.get()), now + ttlMillis));
+            }
+        }
+        return loaded;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserProfileChanged(UserProfileChangedEvent event) {
+        invalidate(event.userId());
+    }
+
+    public void invalidate(Long userId) {
+        Stripe stripe = stripeFor(userId);
+        synchronized (stripe) {
+            stripe.profiles.remove(userId);
+            stripe.loading.remove(userId);
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.profiles.size();
+            }
+        }
+        return size;
+    }
+
+    private Stripe stripeFor(Long userId) {
+        int h = userId.hashCode();
+        return stripes[(h ^ (h >>> 16)) & (stripes.length - 1)];
+    }
+
+    // UserDTO 可修改, 快取內外各自持有一份
+    private static UserDTO copy(UserDTO user) {
+        return new UserDTO(user.getId(), user.getEmail(), user.getDisplayName(), user.getAvatarUrl(),
+                user.getRole(), user.getLevel(), user.getExperience(), user.getIsPremium());
+    }
+
+    private record Entry(UserDTO user, long expiresAt) {
+    }
+
+    // guarded by the stripe itself
+    private static final class Stripe {
+
+        private final LinkedHashMap<Long, Entry> profiles;
+        // 進行中的載入, 只在載入期間存在
+        private final Map<Long, Object> loading = new HashMap<>();
+
+        Stripe(int maxEntries) {
+            this.profiles = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                    return size() > maxEntries;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,14 @@
+-- V4: Switch primary keys to pooled sequences
+-- GenerationType.IDENTITY 會讓 Hibernate 停用 insert batching (每筆 insert 都必須立即取回 id)
+-- 改用 SEQUENCE + allocationSize = 50 (pooled optimizer), 一次 nextval 可分配 50 個 id
+--
+-- BIGSERIAL 建立的 *_id_seq 直接沿用, 只調整 increment 以對應 entity 的 allocationSize
+-- 欄位的 DEFAULT nextval(...) 保留, 原生 SQL insert (例如 progress upsert) 仍可使用,
+-- 每次 nextval 取得的值都落在自己的區段內, 不會與 Hibernate 分配的 id 衝突
+
+ALTER SEQUENCE users_id_seq INCREMENT BY 50;
+ALTER SEQUENCE courses_id_seq INCREMENT BY 50;
+ALTER SEQUENCE lessons_id_seq INCREMENT BY 50;
+ALTER SEQUENCE progress_id_seq INCREMENT BY 50;
+ALTER SEQUENCE user_roles_id_seq INCREMENT BY 50;
+ALTER SEQUENCE course_purchases_id_seq INCREMENT BY 50;
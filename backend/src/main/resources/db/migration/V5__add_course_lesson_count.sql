@@ -0,0 +1,49 @@
+-- V5: Denormalized published lesson count on courses
+-- Course.getTotalLessons() 原本回傳 lessons.size(), 會載入所有 Lesson (包含 content TEXT) 只為了計數
+-- 改由 courses.lesson_count 提供, 並以 trigger 在單元新增/刪除/發布/取消發布/換課程時維護
+
+-- =============================================================================
+-- 1. Add column and backfill
+-- =============================================================================
+ALTER TABLE courses ADD COLUMN lesson_count INTEGER NOT NULL DEFAULT 0;
+
+UPDATE courses c
+SET lesson_count = (
+    SELECT COUNT(*)
+    FROM lessons l
+    WHERE l.course_id = c.id
+      AND l.is_published = true
+);
+
+COMMENT ON COLUMN courses.lesson_count IS '已發布單元數 (由 trg_lessons_lesson_count 維護)';
+
+-- =============================================================================
+-- 2. Maintain lesson_count with row-level deltas
+-- 使用增減而非重新計數: 同一課程同時新增單元時, courses 的 row lock 會讓更新依序套用
+-- =============================================================================
+CREATE OR REPLACE FUNCTION maintain_course_lesson_count() RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        IF NEW.is_published THEN
+            UPDATE courses SET lesson_count = lesson_count + 1 WHERE id = NEW.course_id;
+        END IF;
+    ELSIF TG_OP = 'DELETE' THEN
+        IF OLD.is_published THEN
+            UPDATE courses SET lesson_count = lesson_count - 1 WHERE id = OLD.course_id;
+        END IF;
+    ELSIF (OLD.course_id, OLD.is_published) IS DISTINCT FROM (NEW.course_id, NEW.is_published) THEN
+        IF OLD.is_published THEN
+            UPDATE courses SET lesson_count = lesson_count - 1 WHERE id = OLD.course_id;
+        END IF;
+        IF NEW.is_published THEN
+            UPDATE courses SET lesson_count = lesson_count + 1 WHERE id = NEW.course_id;
+        END IF;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_lessons_lesson_count
+    AFTER INSERT OR DELETE OR UPDATE OF course_id, is_published ON lessons
+    FOR EACH ROW
+    EXECUTE FUNCTION maintain_course_lesson_count();
@@ -0,0 +1,8 @@
+-- V6: Compressed lesson content
+-- 文章內容改以 gzip 壓縮後存入 content_gzip, 讀取時可直接以 Content-Encoding: gzip 回傳
+-- 既有資料由應用程式啟動後的 LessonContentBackfill 分批壓縮, 完成後 content 欄位為 NULL
+
+ALTER TABLE lessons ADD COLUMN content_gzip BYTEA;
+
+COMMENT ON COLUMN lessons.content_gzip IS 'gzip 壓縮的文章內容 (UTF-8)';
+COMMENT ON COLUMN lessons.content IS '尚未壓縮的舊資料, 壓縮後設為 NULL';
@@ -0,0 +1,34 @@
+-- V7: Refresh tokens
+-- access token 改為短效期 (分鐘), 以 refresh token 換發新的 access token, 不需要重新登入 (BCrypt)
+-- 只保存 token 的 SHA-256, 每次使用後輪替 (rotated_at), 同一次登入的 token 共用 session_id;
+-- 已輪替的 token 被再次使用時撤銷整個 session (revoked_at), 其 access token 也由記憶體中的撤銷清單拒絕
+
+CREATE TABLE refresh_tokens (
+    id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    session_id VARCHAR(36) NOT NULL,
+    token_hash VARCHAR(64) NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    rotated_at TIMESTAMP,
+    revoked_at TIMESTAMP,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT fk_refresh_tokens_user
+        FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+
+    CONSTRAINT uq_refresh_token_hash
+        UNIQUE (token_hash)
+);
+
+ALTER SEQUENCE refresh_tokens_id_seq INCREMENT BY 50;
+
+CREATE INDEX idx_refresh_tokens_user_id ON refresh_tokens(user_id);
+CREATE INDEX idx_refresh_tokens_session_id ON refresh_tokens(session_id);
+CREATE INDEX idx_refresh_tokens_expires_at ON refresh_tokens(expires_at);
+CREATE INDEX idx_refresh_tokens_revoked_at ON refresh_tokens(revoked_at) WHERE revoked_at IS NOT NULL;
+
+COMMENT ON TABLE refresh_tokens IS 'Refresh tokens (SHA-256 only), rotated on every use';
+COMMENT ON COLUMN refresh_tokens.session_id IS '同一次登入輪替出的 token 共用, 同時寫入 access token 的 sid claim';
+COMMENT ON COLUMN refresh_tokens.rotated_at IS '已換發新 token 的時間, 之後不能再使用';
+COMMENT ON COLUMN refresh_tokens.revoked_at IS '整個 session 被撤銷 (登出或偵測到重複使用) 的時間';
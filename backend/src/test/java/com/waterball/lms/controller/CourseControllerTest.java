@@ -0,0 +1,103 @@
+package com.waterball.lms.controller;
+
+import com.waterball.lms.model.dto.CourseDTO;
+import com.waterball.lms.model.dto.CoursePlayerDTO;
+import com.waterball.lms.model.dto.LessonDTO;
+import com.waterball.lms.model.dto.UserDTO;
+import com.waterball.lms.security.WithAuthenticatedUser;
+import com.waterball.lms.service.CourseService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for CourseController player endpoint
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class CourseControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private CourseService courseService;
+
+    @Test
+    void shouldReturnPlayerForAnonymousViewer() throws Exception {
+        // Given
+        when(courseService.getCoursePlayer(eq(1L), isNull()))
+                .thenReturn(player(false, null));
+
+        // When/Then
+        mockMvc.perform(get("/api/courses/1/player"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("private")))
+                .andExpect(jsonPath("$.course.id").value(1))
+                .andExpect(jsonPath("$.hasAccess").value(false))
+                .andExpect(jsonPath("$.user").doesNotExist())
+                .andExpect(jsonPath("$.lessons[0].videoUrl").doesNotExist());
+
+        verify(courseService).getCoursePlayer(1L, null);
+    }
+
+    @Test
+    @WithAuthenticatedUser(id = 1L, email = "test@example.com")
+    void shouldPassAuthenticatedUserIdToService() throws Exception {
+        // Given
+        UserDTO user = UserDTO.builder().id(1L).email("test@example.com").build();
+        when(courseService.getCoursePlayer(1L, 1L)).thenReturn(player(true, user));
+
+        // When/Then
+        mockMvc.perform(get("/api/courses/1/player"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hasAccess").value(true))
+                .andExpect(jsonPath("$.user.id").value(1))
+                .andExpect(jsonPath("$.lessons[0].videoUrl").value("https://video.example.com/10"));
+
+        verify(courseService).getCoursePlayer(1L, 1L);
+    }
+
+    @Test
+    void shouldReturn400ForUnknownCourse() throws Exception {
+        // Given
+        when(courseService.getCoursePlayer(eq(99L), isNull()))
+                .thenThrow(new IllegalArgumentException("Course not found"));
+
+        // When/Then
+        mockMvc.perform(get("/api/courses/99/player"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Course not found"));
+    }
+
+    private static CoursePlayerDTO player(boolean hasAccess, UserDTO user) {
+        LessonDTO lesson = LessonDTO.builder()
+                .id(10L)
+                .courseId(1L)
+                .title("Lesson 10")
+                .videoUrl(hasAccess ? "https://video.example.com/10" : null)
+                .build();
+        return CoursePlayerDTO.builder()
+                .course(CourseDTO.builder().id(1L).title("Test Course").build())
+                .lessons(List.of(lesson))
+                .hasAccess(hasAccess)
+                .user(user)
+                .build();
+    }
+}
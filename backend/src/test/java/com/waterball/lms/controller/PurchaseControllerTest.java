@@ -1,28 +1,29 @@
 package com.waterball.lms.controller;
 
 import com.waterball.lms.model.dto.PurchaseDTO;
-import com.waterball.lms.model.entity.User;
-import com.waterball.lms.repository.UserRepository;
+import com.waterball.lms.security.JwtTokenProvider;
+import com.waterball.lms.security.WithAuthenticatedUser;
 import com.waterball.lms.service.PurchaseService;
-import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
-import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -41,22 +42,8 @@ class PurchaseControllerTest {
     @MockBean
     private PurchaseService purchaseService;
 
-    @MockBean
-    private UserRepository userRepository;
-
-    private User testUser;
-
-    @BeforeEach
-    void setUp() {
-        testUser = User.builder()
-                .id(1L)
-                .email("test@example.com")
-                .displayName("Test User")
-                .build();
-    }
-
     @Test
-    @WithMockUser(username = "test@example.com")
+    @WithAuthenticatedUser(id = 1L, email = "test@example.com")
     void shouldPurchaseCourse() throws Exception {
         // Given
         PurchaseDTO purchaseDTO = PurchaseDTO.builder()
@@ -70,7 +57,7 @@ class PurchaseControllerTest {
                 .transactionId("MOCK-123")
                 .build();
 
-        when(purchaseService.purchaseCourse(eq("test@example.com"), eq(1L)))
+        when(purchaseService.purchaseCourse(eq(1L), eq(1L)))
                 .thenReturn(purchaseDTO);
 
         // When/Then
@@ -96,10 +83,26 @@ class PurchaseControllerTest {
     }
 
     @Test
-    @WithMockUser(username = "test@example.com")
+    void shouldReturn401ForExpiredAccessToken() throws Exception {
+        // Given: 已過期的 access token (前端收到 401 才會換發並重試)
+        JwtTokenProvider expiredTokens = new JwtTokenProvider(
+                "test-secret-key-must-be-at-least-256-bits-long-for-HS256-algorithm-security-testing", -1000, 0);
+        String expired = expiredTokens.createToken(1L, "test@example.com", "STUDENT", "session-1");
+
+        // When/Then
+        mockMvc.perform(post("/api/purchases/courses/1")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + expired)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isUnauthorized());
+
+        verifyNoInteractions(purchaseService);
+    }
+
+    @Test
+    @WithAuthenticatedUser(id = 1L, email = "test@example.com")
     void shouldReturn409WhenPurchasingAlreadyPurchasedCourse() throws Exception {
         // Given
-        when(purchaseService.purchaseCourse(eq("test@example.com"), eq(1L)))
+        when(purchaseService.purchaseCourse(eq(1L), eq(1L)))
                 .thenThrow(new IllegalStateException("Course already purchased"));
 
         // When/Then
@@ -111,10 +114,10 @@ class PurchaseControllerTest {
     }
 
     @Test
-    @WithMockUser(username = "test@example.com")
+    @WithAuthenticatedUser(id = 1L, email = "test@example.com")
     void shouldReturn400WhenPurchasingFreeCourse() throws Exception {
         // Given
-        when(purchaseService.purchaseCourse(eq("test@example.com"), eq(1L)))
+        when(purchaseService.purchaseCourse(eq(1L), eq(1L)))
                 .thenThrow(new IllegalArgumentException("Cannot purchase free course"));
 
         // When/Then
@@ -126,7 +129,7 @@ class PurchaseControllerTest {
     }
 
     @Test
-    @WithMockUser(username = "test@example.com")
+    @WithAuthenticatedUser(id = 1L, email = "test@example.com")
     void shouldGetMyPurchases() throws Exception {
         // Given
         List<PurchaseDTO> purchases = Arrays.asList(
@@ -152,7 +155,7 @@ class PurchaseControllerTest {
                         .build()
         );
 
-        when(purchaseService.getMyPurchases(eq("test@example.com")))
+        when(purchaseService.getMyPurchases(eq(1L)))
                 .thenReturn(purchases);
 
         // When/Then
@@ -165,11 +168,9 @@ class PurchaseControllerTest {
     }
 
     @Test
-    @WithMockUser(username = "test@example.com")
+    @WithAuthenticatedUser(id = 1L, email = "test@example.com")
     void shouldCheckPurchaseStatus() throws Exception {
         // Given
-        when(userRepository.findByEmail("test@example.com"))
-                .thenReturn(Optional.of(testUser));
         when(purchaseService.hasPurchased(eq(1L), eq(1L)))
                 .thenReturn(true);
 
@@ -180,11 +181,9 @@ class PurchaseControllerTest {
     }
 
     @Test
-    @WithMockUser(username = "test@example.com")
+    @WithAuthenticatedUser(id = 1L, email = "test@example.com")
     void shouldCheckAccessPermission() throws Exception {
         // Given
-        when(userRepository.findByEmail("test@example.com"))
-                .thenReturn(Optional.of(testUser));
         when(purchaseService.hasAccess(eq(1L), eq(1L)))
                 .thenReturn(true);
 
@@ -193,4 +192,21 @@ class PurchaseControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.hasAccess").value(true));
     }
+
+    @Test
+    @WithAuthenticatedUser(id = 1L, email = "test@example.com")
+    void shouldCheckAccessForMultipleCourses() throws Exception {
+        // Given
+        Map<Long, Boolean> access = new LinkedHashMap<>();
+        access.put(1L, true);
+        access.put(2L, false);
+        when(purchaseService.getAccess(1L, List.of(1L, 2L)))
+                .thenReturn(access);
+
+        // When/Then
+        mockMvc.perform(get("/api/purchases/access").param("courseIds", "1,2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$['1']").value(true))
+                .andExpect(jsonPath("$['2']").value(false));
+    }
 }
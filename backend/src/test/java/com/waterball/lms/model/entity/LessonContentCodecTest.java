@@ -0,0 +1,46 @@
+package com.waterball.lms.model.entity;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for compressed lesson content
+ */
+class LessonContentCodecTest {
+
+    @Test
+    void shouldRoundTripUtf8Content() {
+        // Given
+        String content = "# 策略模式\n\n" + "把演算法封裝起來, 讓它們可以互相替換。".repeat(50);
+
+        // When
+        byte[] compressed = LessonContentCodec.compress(content);
+
+        // Then
+        assertThat(compressed.length).isLessThan(content.length());
+        assertThat(LessonContentCodec.decompress(compressed)).isEqualTo(content);
+    }
+
+    @Test
+    void shouldStoreContentCompressedThroughBuilderAndSetter() {
+        // When
+        Lesson lesson = Lesson.builder().title("策略模式").content("內容 A").build();
+
+        // Then
+        assertThat(lesson.getContentGzip()).isNotNull();
+        assertThat(lesson.getContent()).isEqualTo("內容 A");
+
+        // When
+        lesson.setContent("內容 B");
+
+        // Then
+        assertThat(LessonContentCodec.decompress(lesson.getContentGzip())).isEqualTo("內容 B");
+    }
+
+    @Test
+    void shouldKeepNullContent() {
+        assertThat(LessonContentCodec.compress(null)).isNull();
+        assertThat(Lesson.builder().build().getContent()).isNull();
+    }
+}
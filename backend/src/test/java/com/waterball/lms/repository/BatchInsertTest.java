@@ -0,0 +1,67 @@
+package com.waterball.lms.repository;
+
+import com.waterball.lms.model.entity.Course;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifies that sequence-based ids let Hibernate batch inserts
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.jdbc.batch_size=" + BatchInsertTest.BATCH_SIZE,
+        "spring.jpa.properties.hibernate.order_inserts=true",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@ActiveProfiles("test")
+class BatchInsertTest {
+
+    static final int BATCH_SIZE = 50;
+
+    private static final int INSERT_COUNT = 200;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManager()
+                .getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void shouldBatchInsertsIntoAboutNOverBatchSizeStatements() {
+        // When
+        for (int i = 0; i < INSERT_COUNT; i++) {
+            entityManager.persist(Course.builder()
+                    .title("Course " + i)
+                    .isPremium(false)
+                    .isPublished(true)
+                    .displayOrder(i)
+                    .price(BigDecimal.ZERO)
+                    .build());
+        }
+        entityManager.flush();
+
+        // Then
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(INSERT_COUNT);
+
+        // N / batchSize 個 insert statement + N / allocationSize 次 sequence 呼叫 (+1 次初始化)
+        long expectedMax = 2L * INSERT_COUNT / BATCH_SIZE + 1;
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(expectedMax);
+    }
+}
@@ -0,0 +1,120 @@
+package com.waterball.lms.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for JwtTokenProvider
+ */
+class JwtTokenProviderTest {
+
+    private static final String SECRET = "test-secret-key-must-be-at-least-256-bits-long-for-HS256-algorithm-security-testing";
+
+    private JwtTokenProvider jwtTokenProvider;
+
+    @BeforeEach
+    void setUp() {
+        jwtTokenProvider = new JwtTokenProvider(SECRET, 3600000, 2);
+    }
+
+    @Test
+    void shouldVerifyTokenAndExtractClaims() {
+        // Given
+        String token = jwtTokenProvider.createToken(1L, "test@example.com", "FREE", "session-1");
+
+        // When
+        Optional<TokenClaims> claims = jwtTokenProvider.verify(token);
+
+        // Then
+        assertThat(claims).isPresent();
+        assertThat(claims.get().userId()).isEqualTo(1L);
+        assertThat(claims.get().username()).isEqualTo("test@example.com");
+        assertThat(claims.get().role()).isEqualTo("FREE");
+        assertThat(claims.get().sessionId()).isEqualTo("session-1");
+        assertThat(claims.get().expiresAt()).isGreaterThan(System.currentTimeMillis());
+    }
+
+    @Test
+    void shouldReturnCachedClaimsForSameToken() {
+        // Given
+        String token = jwtTokenProvider.createToken(1L, "test@example.com", "FREE", "session-1");
+        TokenClaims first = jwtTokenProvider.verify(token).orElseThrow();
+
+        // When
+        TokenClaims second = jwtTokenProvider.verify(token).orElseThrow();
+
+        // Then
+        assertThat(second).isSameAs(first);
+        assertThat(jwtTokenProvider.cachedTokenCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldRejectTamperedToken() {
+        // Given
+        String token = jwtTokenProvider.createToken(1L, "test@example.com", "FREE", "session-1");
+        jwtTokenProvider.verify(token);
+        int signatureStart = token.lastIndexOf('.') + 1;
+        char replacement = token.charAt(signatureStart) == 'A' ? 'B' : 'A';
+        String tampered = token.substring(0, signatureStart) + replacement + token.substring(signatureStart + 1);
+
+        // When/Then
+        assertThat(jwtTokenProvider.verify(tampered)).isEmpty();
+        assertThat(jwtTokenProvider.verify("not-a-jwt")).isEmpty();
+    }
+
+    @Test
+    void shouldRejectTokenSignedWithDifferentKey() {
+        // Given
+        JwtTokenProvider other = new JwtTokenProvider(SECRET.replace("test", "prod"), 3600000, 2);
+        String token = other.createToken(1L, "test@example.com", "ADMIN", "session-1");
+
+        // When/Then
+        assertThat(jwtTokenProvider.verify(token)).isEmpty();
+    }
+
+    @Test
+    void shouldRejectExpiredTokenWithoutCachingIt() {
+        // Given
+        JwtTokenProvider expiring = new JwtTokenProvider(SECRET, -1000, 2);
+        String token = expiring.createToken(1L, "test@example.com", "FREE", "session-1");
+
+        // When/Then
+        assertThat(expiring.verify(token)).isEmpty();
+        assertThat(expiring.cachedTokenCount()).isZero();
+    }
+
+    @Test
+    void shouldKeepCacheWithinBound() {
+        // Given
+        String first = jwtTokenProvider.createToken(1L, "a@example.com", "FREE", "session-1");
+        String second = jwtTokenProvider.createToken(2L, "b@example.com", "FREE", "session-2");
+        String third = jwtTokenProvider.createToken(3L, "c@example.com", "FREE", "session-3");
+
+        // When
+        jwtTokenProvider.verify(first);
+        jwtTokenProvider.verify(second);
+        jwtTokenProvider.verify(third);
+
+        // Then
+        assertThat(jwtTokenProvider.cachedTokenCount()).isLessThanOrEqualTo(2);
+        assertThat(jwtTokenProvider.verify(first)).get().extracting(TokenClaims::username).isEqualTo("a@example.com");
+    }
+
+    @Test
+    void shouldKeepStripedCacheWithinBound() {
+        // Given
+        JwtTokenProvider provider = new JwtTokenProvider(SECRET, 3600000, 128);
+
+        // When
+        for (long userId = 1; userId <= 500; userId++) {
+            provider.verify(provider.createToken(userId, "user" + userId + "@example.com", "FREE", "session-" + userId));
+        }
+
+        // Then
+        assertThat(provider.cachedTokenCount()).isPositive().isLessThanOrEqualTo(128);
+    }
+}
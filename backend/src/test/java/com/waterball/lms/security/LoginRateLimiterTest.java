@@ -0,0 +1,120 @@
+package com.waterball.lms.security;
+
+import com.waterball.lms.exception.RateLimitExceededException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for LoginRateLimiter
+ */
+class LoginRateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private LoginRateLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        limiter = new LoginRateLimiter(
+                new LoginRateLimiter.Limit(3, 6),
+                new LoginRateLimiter.Limit(2, 2),
+                LoginRateLimiter.STRIPES * 4,
+                now::get);
+    }
+
+    @Test
+    void shouldRejectIpOnceBucketIsEmpty() {
+        // When
+        long first = limiter.tryAcquireIp("10.0.0.1");
+        limiter.tryAcquireIp("10.0.0.1");
+        limiter.tryAcquireIp("10.0.0.1");
+        long rejected = limiter.tryAcquireIp("10.0.0.1");
+
+        // Then: 每分鐘補充 6 個 = 每 10 秒一個
+        assertThat(first).isZero();
+        assertThat(rejected).isEqualTo(10);
+        assertThat(limiter.tryAcquireIp("10.0.0.2")).isZero();
+    }
+
+    @Test
+    void shouldRefillTokensOverTime() {
+        // Given
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquireIp("10.0.0.1");
+        }
+
+        // When
+        now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+
+        // Then
+        assertThat(limiter.tryAcquireIp("10.0.0.1")).isZero();
+        assertThat(limiter.tryAcquireIp("10.0.0.1")).isPositive();
+    }
+
+    @Test
+    void shouldLimitEmailFailuresCaseInsensitively() {
+        // Given
+        limiter.recordEmailFailure("user@example.com");
+        limiter.recordEmailFailure("USER@example.com ");
+
+        // When & Then
+        assertThatThrownBy(() -> limiter.checkEmail("user@example.com"))
+                .isInstanceOf(RateLimitExceededException.class)
+                .extracting(e -> ((RateLimitExceededException) e).getRetryAfterSeconds())
+                .isEqualTo(30L);
+        assertThatCode(() -> limiter.checkEmail("other@example.com")).doesNotThrowAnyException();
+    }
+
+    @Test
+    void shouldNotChargeEmailForChecksWithoutFailure() {
+        // When
+        for (int i = 0; i < 10; i++) {
+            limiter.checkEmail("user@example.com");
+        }
+
+        // Then
+        assertThatCode(() -> limiter.checkEmail("user@example.com")).doesNotThrowAnyException();
+        assertThat(limiter.size()).isZero();
+    }
+
+    @Test
+    void shouldAllowEmailAgainAfterFailuresRefill() {
+        // Given
+        limiter.recordEmailFailure("user@example.com");
+        limiter.recordEmailFailure("user@example.com");
+
+        // When
+        now.addAndGet(TimeUnit.SECONDS.toNanos(30));
+
+        // Then
+        assertThatCode(() -> limiter.checkEmail("user@example.com")).doesNotThrowAnyException();
+    }
+
+    @Test
+    void shouldKeepIpAndEmailBucketsSeparate() {
+        // Given
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquireIp("user@example.com");
+        }
+
+        // When & Then
+        assertThatCode(() -> limiter.checkEmail("user@example.com")).doesNotThrowAnyException();
+    }
+
+    @Test
+    void shouldBoundNumberOfTrackedKeys() {
+        // When
+        for (int i = 0; i < 10_000; i++) {
+            limiter.tryAcquireIp("10.0." + (i / 256) + "." + (i % 256));
+        }
+
+        // Then
+        assertThat(limiter.size()).isLessThanOrEqualTo(LoginRateLimiter.STRIPES * 4);
+    }
+}
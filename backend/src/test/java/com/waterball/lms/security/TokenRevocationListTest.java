@@ -0,0 +1,89 @@
+package com.waterball.lms.security;
+
+import com.waterball.lms.repository.RefreshTokenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for TokenRevocationList
+ */
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationListTest {
+
+    private static final long ACCESS_TOKEN_VALIDITY = 900000;
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    private final AtomicLong now = new AtomicLong(1_700_000_000_000L);
+    private TokenRevocationList revocationList;
+
+    @BeforeEach
+    void setUp() {
+        revocationList = new TokenRevocationList(refreshTokenRepository, ACCESS_TOKEN_VALIDITY, now::get);
+    }
+
+    @Test
+    void shouldRejectRevokedSessionsOnly() {
+        // When
+        revocationList.revoke("session-1");
+
+        // Then
+        assertThat(revocationList.isRevoked("session-1")).isTrue();
+        assertThat(revocationList.isRevoked("session-2")).isFalse();
+        assertThat(revocationList.isRevoked(null)).isFalse();
+    }
+
+    @Test
+    void shouldForgetSessionOnceItsAccessTokensExpired() {
+        // Given
+        revocationList.revoke("session-1");
+
+        // When
+        now.addAndGet(ACCESS_TOKEN_VALIDITY);
+        revocationList.purge();
+
+        // Then
+        assertThat(revocationList.isRevoked("session-1")).isFalse();
+        assertThat(revocationList.size()).isZero();
+    }
+
+    @Test
+    void shouldRebuildFromRevokedRefreshTokens() {
+        // Given
+        when(refreshTokenRepository.findSessionIdsRevokedSince(any())).thenReturn(List.of("session-1", "session-2"));
+
+        // When
+        revocationList.rebuild();
+
+        // Then
+        assertThat(revocationList.isRevoked("session-1")).isTrue();
+        assertThat(revocationList.isRevoked("session-2")).isTrue();
+        assertThat(revocationList.isRevoked("session-3")).isFalse();
+    }
+
+    @Test
+    void shouldHaveNoFalseNegativesForManySessions() {
+        // When
+        for (int i = 0; i < 5_000; i++) {
+            revocationList.revoke("session-" + i);
+        }
+        revocationList.purge();
+
+        // Then
+        for (int i = 0; i < 5_000; i++) {
+            assertThat(revocationList.isRevoked("session-" + i)).isTrue();
+        }
+        assertThat(revocationList.isRevoked("other")).isFalse();
+    }
+}
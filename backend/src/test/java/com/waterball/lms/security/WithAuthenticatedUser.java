@@ -0,0 +1,23 @@
+package com.waterball.lms.security;
+
+import org.springframework.security.test.context.support.WithSecurityContext;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Runs a test with an {@link AuthenticatedUser} principal, as installed by JwtAuthenticationFilter
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+@WithSecurityContext(factory = WithAuthenticatedUserSecurityContextFactory.class)
+public @interface WithAuthenticatedUser {
+
+    long id() default 1L;
+
+    String email() default "test@example.com";
+
+    String role() default "STUDENT";
+}
@@ -0,0 +1,24 @@
+package com.waterball.lms.security;
+
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.test.context.support.WithSecurityContextFactory;
+
+import java.util.List;
+
+/**
+ * Builds the security context for {@link WithAuthenticatedUser}
+ */
+public class WithAuthenticatedUserSecurityContextFactory implements WithSecurityContextFactory<WithAuthenticatedUser> {
+
+    @Override
+    public SecurityContext createSecurityContext(WithAuthenticatedUser annotation) {
+        AuthenticatedUser principal = new AuthenticatedUser(annotation.id(), annotation.email(), annotation.role());
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(new UsernamePasswordAuthenticationToken(
+                principal, null, List.of(new SimpleGrantedAuthority("ROLE_" + annotation.role()))));
+        return context;
+    }
+}
@@ -0,0 +1,96 @@
+package com.waterball.lms.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.waterball.lms.model.dto.CourseDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for CatalogResponseCache
+ */
+@ExtendWith(MockitoExtension.class)
+class CatalogResponseCacheTest {
+
+    @Mock
+    private CourseCatalog courseCatalog;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private CatalogResponseCache cache;
+    private CourseDTO course;
+
+    @BeforeEach
+    void setUp() {
+        cache = new CatalogResponseCache(courseCatalog, objectMapper);
+        course = CourseDTO.builder()
+                .id(1L)
+                .title("Java 基礎入門")
+                .isPremium(false)
+                .price(BigDecimal.ZERO)
+                .totalLessons(3)
+                .displayOrder(1)
+                .build();
+    }
+
+    @Test
+    void shouldReuseEncodedBytesWithinCatalogVersion() throws IOException {
+        // Given
+        when(courseCatalog.current()).thenReturn(snapshot(1L));
+
+        // When
+        CatalogResponseCache.Encoded first = cache.courses();
+        CatalogResponseCache.Encoded second = cache.courses();
+
+        // Then
+        assertThat(second).isSameAs(first);
+        assertThat(first.identity()).isEqualTo(objectMapper.writeValueAsBytes(List.of(course)));
+        assertThat(gunzip(first.gzip())).isEqualTo(first.identity());
+    }
+
+    @Test
+    void shouldReencodeWhenCatalogVersionChanges() {
+        // Given
+        when(courseCatalog.current()).thenReturn(snapshot(1L));
+        CatalogResponseCache.Encoded before = cache.courses();
+
+        // When
+        when(courseCatalog.current()).thenReturn(snapshot(2L));
+        CatalogResponseCache.Encoded after = cache.courses();
+
+        // Then
+        assertThat(after).isNotSameAs(before);
+    }
+
+    @Test
+    void shouldReturnEmptyForUnknownCourse() {
+        // Given
+        when(courseCatalog.current()).thenReturn(snapshot(1L));
+
+        // When/Then
+        assertThat(cache.course(1L)).isPresent();
+        assertThat(cache.course(99L)).isEmpty();
+    }
+
+    private CourseCatalog.Snapshot snapshot(long version) {
+        return new CourseCatalog.Snapshot(version, version, List.of(course), Map.of(1L, course), Map.of());
+    }
+
+    private static byte[] gunzip(byte[] bytes) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readAllBytes();
+        }
+    }
+}
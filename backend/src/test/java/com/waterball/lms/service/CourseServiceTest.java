@@ -0,0 +1,192 @@
+package com.waterball.lms.service;
+
+import com.waterball.lms.model.dto.CourseDTO;
+import com.waterball.lms.model.dto.CoursePlayerDTO;
+import com.waterball.lms.model.dto.LessonDTO;
+import com.waterball.lms.model.dto.UserDTO;
+import com.waterball.lms.model.entity.Lesson;
+import com.waterball.lms.model.entity.Progress;
+import com.waterball.lms.repository.LessonRepository;
+import com.waterball.lms.repository.ProgressRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for CourseService.getCoursePlayer
+ */
+@ExtendWith(MockitoExtension.class)
+class CourseServiceTest {
+
+    private static final Long FREE_COURSE_ID = 1L;
+    private static final Long PREMIUM_COURSE_ID = 2L;
+
+    @Mock
+    private CourseCatalog courseCatalog;
+
+    @Mock
+    private LessonRepository lessonRepository;
+
+    @Mock
+    private ProgressRepository progressRepository;
+
+    @Mock
+    private UserProfileCache userProfileCache;
+
+    @Mock
+    private PurchaseService purchaseService;
+
+    @Mock
+    private ProgressWriteBuffer progressWriteBuffer;
+
+    @Mock
+    private UserContentVersions userContentVersions;
+
+    @InjectMocks
+    private CourseService courseService;
+
+    private UserDTO testUser;
+
+    @BeforeEach
+    void setUp() {
+        CourseDTO freeCourse = CourseDTO.builder()
+                .id(FREE_COURSE_ID).title("Free Course").isPremium(false).price(BigDecimal.ZERO).build();
+        CourseDTO premiumCourse = CourseDTO.builder()
+                .id(PREMIUM_COURSE_ID).title("Premium Course").isPremium(true).price(new BigDecimal("2990")).build();
+        CourseCatalog.Snapshot snapshot = new CourseCatalog.Snapshot(1L, 0L,
+                List.of(freeCourse, premiumCourse),
+                Map.of(FREE_COURSE_ID, freeCourse, PREMIUM_COURSE_ID, premiumCourse),
+                Map.of(FREE_COURSE_ID, List.of(lesson(10L, FREE_COURSE_ID)),
+                        PREMIUM_COURSE_ID, List.of(lesson(20L, PREMIUM_COURSE_ID), lesson(21L, PREMIUM_COURSE_ID))));
+        when(courseCatalog.current()).thenReturn(snapshot);
+
+        testUser = UserDTO.builder().id(1L).email("test@example.com").role("STUDENT").level(1).experience(0).build();
+    }
+
+    @Test
+    void shouldHideVideoInfoAndUserForAnonymousViewer() {
+        // When
+        CoursePlayerDTO player = courseService.getCoursePlayer(FREE_COURSE_ID, null);
+
+        // Then
+        assertThat(player.getCourse().getId()).isEqualTo(FREE_COURSE_ID);
+        assertThat(player.getHasAccess()).isFalse();
+        assertThat(player.getUser()).isNull();
+        assertThat(player.getLessons()).singleElement().satisfies(lesson -> {
+            assertThat(lesson.getVideoUrl()).isNull();
+            assertThat(lesson.getProgressPercentage()).isZero();
+        });
+        verifyNoInteractions(userProfileCache, purchaseService, progressRepository);
+    }
+
+    @Test
+    void shouldGrantAccessToFreeCourseForLoggedInViewer() {
+        // Given
+        when(userProfileCache.get(1L)).thenReturn(Optional.of(testUser));
+        when(purchaseService.hasAccess(1L, FREE_COURSE_ID)).thenReturn(true);
+
+        // When
+        CoursePlayerDTO player = courseService.getCoursePlayer(FREE_COURSE_ID, 1L);
+
+        // Then
+        assertThat(player.getHasAccess()).isTrue();
+        assertThat(player.getUser()).isEqualTo(testUser);
+        assertThat(player.getLessons()).singleElement()
+                .extracting(LessonDTO::getVideoUrl).isEqualTo("https://video.example.com/10");
+    }
+
+    @Test
+    void shouldHideVideoInfoOfLockedPremiumCourse() {
+        // Given
+        when(userProfileCache.get(1L)).thenReturn(Optional.of(testUser));
+        when(purchaseService.hasAccess(1L, PREMIUM_COURSE_ID)).thenReturn(false);
+
+        // When
+        CoursePlayerDTO player = courseService.getCoursePlayer(PREMIUM_COURSE_ID, 1L);
+
+        // Then
+        assertThat(player.getHasAccess()).isFalse();
+        assertThat(player.getUser()).isEqualTo(testUser);
+        assertThat(player.getLessons()).hasSize(2)
+                .allSatisfy(lesson -> {
+                    assertThat(lesson.getVideoUrl()).isNull();
+                    assertThat(lesson.getVideoDuration()).isNull();
+                });
+    }
+
+    @Test
+    void shouldIncludeVideoInfoAndProgressForPurchasedCourse() {
+        // Given
+        when(userProfileCache.get(1L)).thenReturn(Optional.of(testUser));
+        when(purchaseService.hasAccess(1L, PREMIUM_COURSE_ID)).thenReturn(true);
+        Progress progress = Progress.builder()
+                .lesson(Lesson.builder().id(20L).build())
+                .progressPercentage(100)
+                .lastPosition(600)
+                .isCompleted(true)
+                .isSubmitted(false)
+                .build();
+        when(progressRepository.findByUserIdAndLessonCourseId(1L, PREMIUM_COURSE_ID)).thenReturn(List.of(progress));
+
+        // When
+        CoursePlayerDTO player = courseService.getCoursePlayer(PREMIUM_COURSE_ID, 1L);
+
+        // Then
+        assertThat(player.getHasAccess()).isTrue();
+        assertThat(player.getLessons()).extracting(LessonDTO::getVideoUrl)
+                .containsExactly("https://video.example.com/20", "https://video.example.com/21");
+        assertThat(player.getLessons().get(0).getIsCompleted()).isTrue();
+        assertThat(player.getLessons().get(0).getLastPosition()).isEqualTo(600);
+        assertThat(player.getLessons().get(1).getProgressPercentage()).isZero();
+    }
+
+    @Test
+    void shouldNotModifySharedSnapshotLessons() {
+        // Given
+        when(userProfileCache.get(1L)).thenReturn(Optional.of(testUser));
+        when(purchaseService.hasAccess(1L, PREMIUM_COURSE_ID)).thenReturn(false);
+
+        // When
+        courseService.getCoursePlayer(PREMIUM_COURSE_ID, 1L);
+
+        // Then
+        assertThat(courseCatalog.current().lessons(PREMIUM_COURSE_ID))
+                .extracting(LessonDTO::getVideoUrl)
+                .containsExactly("https://video.example.com/20", "https://video.example.com/21");
+    }
+
+    @Test
+    void shouldRejectUnknownCourse() {
+        // When/Then
+        assertThatThrownBy(() -> courseService.getCoursePlayer(99L, 1L))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Course not found");
+
+        verify(purchaseService, never()).hasAccess(anyLong(), anyLong());
+    }
+
+    private static LessonDTO lesson(Long id, Long courseId) {
+        return LessonDTO.builder()
+                .id(id)
+                .courseId(courseId)
+                .title("Lesson " + id)
+                .type("VIDEO")
+                .videoUrl("https://video.example.com/" + id)
+                .videoDuration(600)
+                .displayOrder(id.intValue())
+                .build();
+    }
+}
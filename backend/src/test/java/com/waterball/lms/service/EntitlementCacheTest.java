@@ -0,0 +1,230 @@
+package com.waterball.lms.service;
+
+import com.waterball.lms.model.dto.CourseDTO;
+import com.waterball.lms.model.entity.Course;
+import com.waterball.lms.model.event.CoursePurchasedEvent;
+import com.waterball.lms.repository.CoursePurchaseRepository;
+import com.waterball.lms.repository.CourseRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for EntitlementCache
+ */
+@ExtendWith(MockitoExtension.class)
+class EntitlementCacheTest {
+
+    @Mock
+    private CourseCatalog courseCatalog;
+
+    @Mock
+    private CourseRepository courseRepository;
+
+    @Mock
+    private CoursePurchaseRepository purchaseRepository;
+
+    private EntitlementCache entitlementCache;
+
+    @BeforeEach
+    void setUp() {
+        CourseDTO freeCourse = CourseDTO.builder().id(1L).isPremium(false).build();
+        CourseDTO premiumCourse = CourseDTO.builder().id(2L).isPremium(true).build();
+        CourseDTO otherPremiumCourse = CourseDTO.builder().id(3L).isPremium(true).build();
+        CourseCatalog.Snapshot snapshot = new CourseCatalog.Snapshot(1L, 0L, List.of(),
+                Map.of(1L, freeCourse, 2L, premiumCourse, 3L, otherPremiumCourse), Map.of());
+        when(courseCatalog.current()).thenReturn(snapshot);
+
+        entitlementCache = new EntitlementCache(courseCatalog, courseRepository, purchaseRepository, 2);
+    }
+
+    @Test
+    void shouldReturnTrueForAccessToFreeCourse() {
+        // When
+        boolean hasAccess = entitlementCache.hasAccess(1L, 1L);
+
+        // Then
+        assertThat(hasAccess).isTrue();
+        verify(purchaseRepository, never()).findCourseIdsByUserId(any());
+        verify(courseRepository, never()).findById(any());
+    }
+
+    @Test
+    void shouldReturnTrueForAccessToPurchasedPremiumCourse() {
+        // Given
+        when(purchaseRepository.findCourseIdsByUserId(1L)).thenReturn(List.of(2L));
+
+        // When
+        boolean hasAccess = entitlementCache.hasAccess(1L, 2L);
+
+        // Then
+        assertThat(hasAccess).isTrue();
+    }
+
+    @Test
+    void shouldReturnFalseForAccessToUnpurchasedPremiumCourse() {
+        // Given
+        when(purchaseRepository.findCourseIdsByUserId(1L)).thenReturn(List.of(2L));
+
+        // When
+        boolean hasAccess = entitlementCache.hasAccess(1L, 3L);
+
+        // Then
+        assertThat(hasAccess).isFalse();
+    }
+
+    @Test
+    void shouldLoadPurchasesOncePerUser() {
+        // Given
+        when(purchaseRepository.findCourseIdsByUserId(1L)).thenReturn(List.of(2L));
+
+        // When
+        entitlementCache.hasAccess(1L, 2L);
+        entitlementCache.hasAccess(1L, 3L);
+        entitlementCache.hasAccess(1L, 2L);
+
+        // Then
+        verify(purchaseRepository, times(1)).findCourseIdsByUserId(1L);
+    }
+
+    @Test
+    void shouldReloadPurchasesAfterCoursePurchased() {
+        // Given
+        when(purchaseRepository.findCourseIdsByUserId(1L))
+                .thenReturn(List.of())
+                .thenReturn(List.of(2L));
+        assertThat(entitlementCache.hasAccess(1L, 2L)).isFalse();
+
+        // When
+        entitlementCache.onCoursePurchased(new CoursePurchasedEvent(1L, 2L));
+
+        // Then
+        assertThat(entitlementCache.hasAccess(1L, 2L)).isTrue();
+        verify(purchaseRepository, times(2)).findCourseIdsByUserId(1L);
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedUserWhenFull() {
+        // Given
+        when(purchaseRepository.findCourseIdsByUserId(any())).thenReturn(List.of());
+        entitlementCache.hasAccess(1L, 2L);
+        entitlementCache.hasAccess(2L, 2L);
+
+        // When
+        entitlementCache.hasAccess(3L, 2L);
+        entitlementCache.hasAccess(1L, 2L);
+
+        // Then
+        verify(purchaseRepository, times(2)).findCourseIdsByUserId(1L);
+        verify(purchaseRepository, times(1)).findCourseIdsByUserId(2L);
+    }
+
+    @Test
+    void shouldCheckMultipleCoursesWithSinglePurchaseLoad() {
+        // Given
+        when(purchaseRepository.findCourseIdsByUserId(1L)).thenReturn(List.of(2L));
+
+        // When
+        Map<Long, Boolean> access = entitlementCache.hasAccess(1L, List.of(3L, 1L, 2L));
+
+        // Then
+        assertThat(access).containsExactly(
+                Map.entry(3L, false), Map.entry(1L, true), Map.entry(2L, true));
+        verify(purchaseRepository, times(1)).findCourseIdsByUserId(1L);
+    }
+
+    @Test
+    void shouldFallBackToRepositoryForCourseMissingFromSnapshot() {
+        // Given
+        Course newCourse = Course.builder().id(4L).isPremium(false).build();
+        when(courseRepository.findById(4L)).thenReturn(Optional.of(newCourse));
+
+        // When
+        boolean hasAccess = entitlementCache.hasAccess(1L, 4L);
+
+        // Then
+        assertThat(hasAccess).isTrue();
+    }
+
+    @Test
+    void shouldThrowExceptionWhenCourseNotFound() {
+        // Given
+        when(courseRepository.findById(999L)).thenReturn(Optional.empty());
+
+        // When/Then
+        assertThatThrownBy(() -> entitlementCache.hasAccess(1L, 999L))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Course not found");
+    }
+
+    @Test
+    void shouldTreatNegativeCourseIdAsUnknownCourse() {
+        // Given
+        when(courseRepository.findById(-1L)).thenReturn(Optional.empty());
+
+        // When/Then
+        assertThatThrownBy(() -> entitlementCache.hasAccess(1L, -1L))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Course not found");
+    }
+
+    @Test
+    void shouldTreatCourseIdBeyondIntRangeAsUnknownCourse() {
+        // Given
+        long courseId = Integer.MAX_VALUE + 1L;
+        when(courseRepository.findById(courseId)).thenReturn(Optional.empty());
+
+        // When/Then
+        assertThatThrownBy(() -> entitlementCache.hasAccess(1L, List.of(2L, courseId)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Course not found");
+    }
+
+    @Test
+    void shouldCheckPurchaseInRepositoryForCourseIdBeyondIntRange() {
+        // Given
+        long courseId = Long.MAX_VALUE;
+        Course bigIdCourse = Course.builder().id(courseId).isPremium(true).build();
+        when(courseRepository.findById(courseId)).thenReturn(Optional.of(bigIdCourse));
+        when(purchaseRepository.existsByUserIdAndCourseId(1L, courseId)).thenReturn(true);
+
+        // When
+        boolean hasAccess = entitlementCache.hasAccess(1L, courseId);
+
+        // Then
+        assertThat(hasAccess).isTrue();
+        verify(purchaseRepository, never()).findCourseIdsByUserId(any());
+    }
+
+    @Test
+    void shouldKeepUsersOfOtherStripesCachedOnInvalidation() {
+        // Given
+        EntitlementCache cache = new EntitlementCache(courseCatalog, courseRepository, purchaseRepository, 1000);
+        when(purchaseRepository.findCourseIdsByUserId(any())).thenReturn(List.of(2L));
+        for (long userId = 1; userId <= 100; userId++) {
+            cache.hasAccess(userId, 2L);
+        }
+
+        // When
+        cache.invalidate(1L);
+        for (long userId = 1; userId <= 100; userId++) {
+            cache.hasAccess(userId, 2L);
+        }
+
+        // Then: 只有被失效的用戶重新載入
+        verify(purchaseRepository, times(2)).findCourseIdsByUserId(1L);
+        verify(purchaseRepository, times(1)).findCourseIdsByUserId(2L);
+        verify(purchaseRepository, times(101)).findCourseIdsByUserId(any());
+    }
+}
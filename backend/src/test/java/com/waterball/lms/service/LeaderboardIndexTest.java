@@ -0,0 +1,104 @@
+package com.waterball.lms.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for LeaderboardIndex
+ */
+class LeaderboardIndexTest {
+
+    private LeaderboardIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new LeaderboardIndex();
+        index.update(1L, 500);
+        index.update(2L, 1500);
+        index.update(3L, 500);
+        index.update(4L, 0);
+        index.update(5L, 3000);
+    }
+
+    @Test
+    void shouldReturnTopUsersWithSharedRanksForTies() {
+        // When
+        List<LeaderboardIndex.Ranked> top = index.top(4);
+
+        // Then
+        assertThat(top).extracting(LeaderboardIndex.Ranked::userId).containsExactly(5L, 2L, 1L, 3L);
+        assertThat(top).extracting(LeaderboardIndex.Ranked::rank).containsExactly(1L, 2L, 3L, 3L);
+    }
+
+    @Test
+    void shouldComputeRankFromHigherExperienceCount() {
+        assertThat(index.rankOf(5L)).get().extracting(LeaderboardIndex.Ranked::rank).isEqualTo(1L);
+        assertThat(index.rankOf(3L)).get().extracting(LeaderboardIndex.Ranked::rank).isEqualTo(3L);
+        assertThat(index.rankOf(4L)).get().extracting(LeaderboardIndex.Ranked::rank).isEqualTo(5L);
+        assertThat(index.rankOf(99L)).isEmpty();
+    }
+
+    @Test
+    void shouldMoveUserWhenExperienceIncreases() {
+        // When
+        index.update(4L, 2000);
+
+        // Then
+        assertThat(index.rankOf(4L)).get().extracting(LeaderboardIndex.Ranked::rank).isEqualTo(2L);
+        assertThat(index.rankOf(2L)).get().extracting(LeaderboardIndex.Ranked::rank).isEqualTo(3L);
+        assertThat(index.size()).isEqualTo(5);
+    }
+
+    @Test
+    void shouldReturnUsersAroundCaller() {
+        // When
+        List<LeaderboardIndex.Ranked> around = index.around(1L, 1);
+
+        // Then
+        assertThat(around).extracting(LeaderboardIndex.Ranked::userId).containsExactly(2L, 1L, 3L);
+        assertThat(around).extracting(LeaderboardIndex.Ranked::rank).containsExactly(2L, 3L, 3L);
+    }
+
+    @Test
+    void shouldGrowBeyondInitialExperienceCapacity() {
+        // When
+        index.update(6L, 1_000_000);
+
+        // Then
+        assertThat(index.rankOf(6L)).get().extracting(LeaderboardIndex.Ranked::rank).isEqualTo(1L);
+        assertThat(index.rankOf(5L)).get().extracting(LeaderboardIndex.Ranked::rank).isEqualTo(2L);
+    }
+
+    @Test
+    void shouldRankHighExperienceWithoutGrowingIndex() {
+        // When
+        index.update(6L, Integer.MAX_VALUE);
+        index.update(7L, Integer.MAX_VALUE - 1);
+
+        // Then
+        assertThat(index.rankOf(6L)).get().extracting(LeaderboardIndex.Ranked::rank).isEqualTo(1L);
+        assertThat(index.rankOf(7L)).get().extracting(LeaderboardIndex.Ranked::rank).isEqualTo(2L);
+        assertThat(index.rankOf(5L)).get().extracting(LeaderboardIndex.Ranked::rank).isEqualTo(3L);
+    }
+
+    @Test
+    void shouldDistinguishCloseExperienceValuesInSameBucket() {
+        // Given: 100000 與 100001 落在同一個 bucket
+        index.update(6L, 100_000);
+        index.update(7L, 100_001);
+        index.update(8L, 100_000);
+
+        // When
+        index.update(7L, 99_999);
+
+        // Then
+        assertThat(index.rankOf(6L)).get().extracting(LeaderboardIndex.Ranked::rank).isEqualTo(1L);
+        assertThat(index.rankOf(8L)).get().extracting(LeaderboardIndex.Ranked::rank).isEqualTo(1L);
+        assertThat(index.rankOf(7L)).get().extracting(LeaderboardIndex.Ranked::rank).isEqualTo(3L);
+        assertThat(index.rankOf(5L)).get().extracting(LeaderboardIndex.Ranked::rank).isEqualTo(4L);
+    }
+}
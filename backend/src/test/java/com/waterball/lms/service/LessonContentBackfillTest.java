@@ -0,0 +1,134 @@
+package com.waterball.lms.service;
+
+import com.waterball.lms.model.entity.Course;
+import com.waterball.lms.model.entity.LessonContentCodec;
+import com.waterball.lms.repository.CourseRepository;
+import com.waterball.lms.repository.LessonRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration tests for LessonContentBackfill
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class LessonContentBackfillTest {
+
+    private static final long ARTICLE_ID = 900_001L;
+    private static final long EMPTY_ID = 900_002L;
+    private static final String ARTICLE = "# 第一章\n\nSpring Boot 實戰: 以 gzip 儲存文章內容。";
+
+    @Autowired
+    private LessonContentBackfill backfill;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private LessonRepository lessonRepository;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private Course course;
+
+    @BeforeEach
+    void setUp() {
+        course = courseRepository.save(Course.builder()
+                .title("Backfill Course")
+                .isPremium(false)
+                .isPublished(true)
+                .displayOrder(0)
+                .price(BigDecimal.ZERO)
+                .build());
+
+        // 模擬 V6 之前的資料: content 有值, content_gzip 為 NULL
+        insertLegacyLesson(ARTICLE_ID, ARTICLE);
+        insertLegacyLesson(EMPTY_ID, null);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM lessons WHERE id IN (?, ?)", ARTICLE_ID, EMPTY_ID);
+        courseRepository.deleteById(course.getId());
+    }
+
+    @Test
+    void shouldCompressLegacyContent() {
+        // When
+        backfill.backfill();
+
+        // Then
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM lessons WHERE id = ? AND content IS NULL AND content_gzip IS NOT NULL",
+                Integer.class, ARTICLE_ID)).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM lessons WHERE id = ? AND content IS NULL AND content_gzip IS NULL",
+                Integer.class, EMPTY_ID)).isEqualTo(1);
+        assertThat(lessonRepository.findById(ARTICLE_ID)).get()
+                .satisfies(lesson -> assertThat(lesson.getContent()).isEqualTo(ARTICLE));
+    }
+
+    @Test
+    void shouldServeBackfilledContentWithAndWithoutGzip() throws Exception {
+        // Given
+        backfill.backfill();
+
+        // When
+        byte[] plain = mockMvc.perform(get("/api/courses/lessons/{id}/content", ARTICLE_ID))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+        byte[] gzip = mockMvc.perform(get("/api/courses/lessons/{id}/content", ARTICLE_ID)
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // Then
+        assertThat(new String(plain, StandardCharsets.UTF_8)).isEqualTo(ARTICLE);
+        assertThat(LessonContentCodec.decompress(gzip)).isEqualTo(ARTICLE);
+    }
+
+    @Test
+    void shouldBeIdempotent() {
+        // Given
+        backfill.backfill();
+        byte[] first = jdbcTemplate.queryForObject(
+                "SELECT content_gzip FROM lessons WHERE id = ?", byte[].class, ARTICLE_ID);
+
+        // When
+        backfill.backfill();
+
+        // Then
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT content_gzip FROM lessons WHERE id = ?", byte[].class, ARTICLE_ID)).isEqualTo(first);
+    }
+
+    private void insertLegacyLesson(long id, String content) {
+        jdbcTemplate.update("""
+                INSERT INTO lessons (id, course_id, title, type, content, content_gzip, display_order,
+                                     is_published, experience_reward, created_at, updated_at)
+                VALUES (?, ?, ?, 'ARTICLE', ?, NULL, 0, true, 200, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)
+                """, id, course.getId(), "Lesson " + id, content);
+    }
+}
@@ -0,0 +1,223 @@
+package com.waterball.lms.service;
+
+import com.waterball.lms.model.dto.ProgressBatchRequest;
+import com.waterball.lms.model.dto.ProgressSubmitRequest;
+import com.waterball.lms.model.dto.ProgressUpdateRequest;
+import com.waterball.lms.model.dto.UserDTO;
+import com.waterball.lms.model.entity.Course;
+import com.waterball.lms.model.entity.Lesson;
+import com.waterball.lms.model.entity.Progress;
+import com.waterball.lms.repository.LessonRepository;
+import com.waterball.lms.repository.ProgressRepository;
+import com.waterball.lms.repository.ProgressRepositoryCustom;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ProgressService
+ */
+@ExtendWith(MockitoExtension.class)
+class ProgressServiceTest {
+
+    @Mock
+    private ProgressRepository progressRepository;
+
+    @Mock
+    private LessonRepository lessonRepository;
+
+    @Mock
+    private ExperienceService experienceService;
+
+    @Mock
+    private PurchaseService purchaseService;
+
+    @Mock
+    private ProgressWriteBuffer progressWriteBuffer;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private ProgressService progressService;
+
+    private Lesson testLesson;
+
+    @BeforeEach
+    void setUp() {
+        testLesson = Lesson.builder()
+                .id(10L)
+                .course(Course.builder().id(1L).build())
+                .experienceReward(200)
+                .build();
+
+        lenient().when(lessonRepository.findById(10L)).thenReturn(Optional.of(testLesson));
+    }
+
+    @Test
+    void shouldSubmitCompletedLessonAndAwardExperience() {
+        // Given
+        when(progressRepository.submitIfCompleted(1L, 10L, 200)).thenReturn(1);
+        UserDTO updatedUser = UserDTO.builder().id(1L).experience(200).level(1).build();
+        when(experienceService.addExperience(1L, 200)).thenReturn(updatedUser);
+
+        // When
+        Map<String, Object> result = progressService.submitLesson(1L, new ProgressSubmitRequest(10L));
+
+        // Then
+        assertThat(result.get("experienceGained")).isEqualTo(200);
+        assertThat(result.get("isSubmitted")).isEqualTo(true);
+        assertThat(result.get("user")).isEqualTo(updatedUser);
+        verify(progressRepository, never()).save(any());
+    }
+
+    @Test
+    void shouldNotAwardExperienceTwiceWhenAlreadySubmitted() {
+        // Given
+        when(progressRepository.submitIfCompleted(1L, 10L, 200)).thenReturn(0);
+        Progress submitted = new Progress();
+        submitted.setIsCompleted(true);
+        submitted.setIsSubmitted(true);
+        when(progressRepository.findByUserIdAndLessonId(1L, 10L)).thenReturn(Optional.of(submitted));
+
+        // When/Then
+        assertThatThrownBy(() -> progressService.submitLesson(1L, new ProgressSubmitRequest(10L)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Lesson already submitted");
+
+        verify(experienceService, never()).addExperience(anyLong(), anyInt());
+    }
+
+    @Test
+    void shouldRejectSubmissionOfIncompleteLesson() {
+        // Given
+        when(progressRepository.submitIfCompleted(1L, 10L, 200)).thenReturn(0);
+        when(progressRepository.findByUserIdAndLessonId(1L, 10L)).thenReturn(Optional.of(new Progress()));
+
+        // When/Then
+        assertThatThrownBy(() -> progressService.submitLesson(1L, new ProgressSubmitRequest(10L)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Lesson not completed yet");
+
+        verify(experienceService, never()).addExperience(anyLong(), anyInt());
+    }
+
+    @Test
+    void shouldKeepFurthestPositionPerLessonInBatch() {
+        // Given
+        Lesson otherLesson = Lesson.builder().id(11L).course(Course.builder().id(1L).build()).build();
+        when(lessonRepository.findAllById(Set.of(10L, 11L))).thenReturn(List.of(testLesson, otherLesson));
+        when(purchaseService.hasAccess(1L, 1L)).thenReturn(true);
+        when(progressWriteBuffer.isEnabled()).thenReturn(true);
+        ProgressBatchRequest request = new ProgressBatchRequest(List.of(
+                new ProgressUpdateRequest(10L, 30, 100),
+                new ProgressUpdateRequest(11L, 5, 50),
+                new ProgressUpdateRequest(10L, 80, 100),
+                new ProgressUpdateRequest(10L, 60, 100)));
+
+        // When
+        Map<String, Object> result = progressService.updateProgressBatch(1L, request);
+
+        // Then
+        assertThat(result.get("updated")).isEqualTo(2);
+        verify(progressRepository).batchUpsertProgress(List.of(
+                new ProgressRepositoryCustom.ProgressUpsert(1L, 10L, 80, 100),
+                new ProgressRepositoryCustom.ProgressUpsert(1L, 11L, 5, 50)));
+        // 每個課程只檢查一次權限
+        verify(purchaseService, times(1)).hasAccess(1L, 1L);
+        // write-behind session 同步為批次寫入的位置
+        verify(progressWriteBuffer).merge(1L, 10L, 80, 100);
+        verify(progressWriteBuffer).merge(1L, 11L, 5, 50);
+    }
+
+    @Test
+    void shouldRejectWholeBatchWhenAnyCourseIsLocked() {
+        // Given
+        Lesson premiumLesson = Lesson.builder().id(20L).course(Course.builder().id(2L).build()).build();
+        when(lessonRepository.findAllById(Set.of(10L, 20L))).thenReturn(List.of(testLesson, premiumLesson));
+        lenient().when(purchaseService.hasAccess(1L, 1L)).thenReturn(true);
+        when(purchaseService.hasAccess(1L, 2L)).thenReturn(false);
+        ProgressBatchRequest request = new ProgressBatchRequest(List.of(
+                new ProgressUpdateRequest(10L, 30, 100),
+                new ProgressUpdateRequest(20L, 30, 100)));
+
+        // When/Then
+        assertThatThrownBy(() -> progressService.updateProgressBatch(1L, request))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Course requires purchase");
+
+        verify(progressRepository, never()).batchUpsertProgress(anyCollection());
+        verify(progressWriteBuffer, never()).merge(anyLong(), anyLong(), anyInt(), anyInt());
+    }
+
+    @Test
+    void shouldRejectBatchWithUnknownLesson() {
+        // Given
+        when(lessonRepository.findAllById(Set.of(10L, 99L))).thenReturn(List.of(testLesson));
+        ProgressBatchRequest request = new ProgressBatchRequest(List.of(
+                new ProgressUpdateRequest(10L, 30, 100),
+                new ProgressUpdateRequest(99L, 30, 100)));
+
+        // When/Then
+        assertThatThrownBy(() -> progressService.updateProgressBatch(1L, request))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Lesson not found");
+
+        verify(progressRepository, never()).batchUpsertProgress(anyCollection());
+    }
+
+    @Test
+    void shouldMergeBufferedHeartbeatWithoutOpeningTransaction() {
+        // Given
+        when(progressWriteBuffer.isEnabled()).thenReturn(true);
+        when(progressWriteBuffer.record(1L, 10L, 60, 100))
+                .thenReturn(Optional.of(ProgressWriteBuffer.Heartbeat.of(60, 100, false)));
+
+        // When
+        Map<String, Object> result = progressService.updateProgress(1L, new ProgressUpdateRequest(10L, 60, 100));
+
+        // Then
+        assertThat(result.get("lastPosition")).isEqualTo(60);
+        assertThat(result.get("progressPercentage")).isEqualTo(60);
+        verifyNoInteractions(transactionManager, lessonRepository, progressRepository, purchaseService);
+    }
+
+    @Test
+    void shouldOpenTransactionForFirstHeartbeatOfSession() {
+        // Given
+        when(progressWriteBuffer.isEnabled()).thenReturn(true);
+        when(progressWriteBuffer.record(1L, 10L, 30, 100)).thenReturn(Optional.empty());
+        when(purchaseService.hasAccess(1L, 1L)).thenReturn(true);
+        when(progressRepository.findByUserIdAndLessonId(1L, 10L)).thenReturn(Optional.empty());
+        when(progressWriteBuffer.open(1L, 10L, 0, false, 30, 100))
+                .thenReturn(ProgressWriteBuffer.Heartbeat.of(30, 100, false));
+
+        // When
+        Map<String, Object> result = progressService.updateProgress(1L, new ProgressUpdateRequest(10L, 30, 100));
+
+        // Then
+        assertThat(result.get("lastPosition")).isEqualTo(30);
+        verify(transactionManager).getTransaction(any());
+        verify(transactionManager).commit(any());
+    }
+}
@@ -0,0 +1,189 @@
+package com.waterball.lms.service;
+
+import com.waterball.lms.repository.ProgressRepository;
+import com.waterball.lms.repository.ProgressRepositoryCustom;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ProgressWriteBuffer
+ */
+@ExtendWith(MockitoExtension.class)
+class ProgressWriteBufferTest {
+
+    @Mock
+    private ProgressRepository progressRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ProgressWriteBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        buffer = new ProgressWriteBuffer(progressRepository, transactionManager, true, 600000, 500);
+    }
+
+    @Test
+    void shouldNotRecordHeartbeatWithoutSession() {
+        // When
+        Optional<ProgressWriteBuffer.Heartbeat> result = buffer.record(1L, 10L, 30, 100);
+
+        // Then
+        assertThat(result).isEmpty();
+        buffer.flush();
+        verifyNoInteractions(progressRepository);
+    }
+
+    @Test
+    void shouldCoalesceHeartbeatsAndFlushLatestPosition() {
+        // Given
+        buffer.open(1L, 10L, 0, false, 10, 100);
+        buffer.record(1L, 10L, 20, 100);
+        Optional<ProgressWriteBuffer.Heartbeat> latest = buffer.record(1L, 10L, 100, 100);
+
+        // When
+        buffer.flush();
+
+        // Then
+        assertThat(latest).isPresent();
+        assertThat(latest.get().completed()).isTrue();
+        verify(progressRepository, times(1)).batchUpsertProgress(List.of(
+                new ProgressRepositoryCustom.ProgressUpsert(1L, 10L, 100, 100)));
+    }
+
+    @Test
+    void shouldNeverMovePositionBackwards() {
+        // Given
+        buffer.open(1L, 10L, 80, false, 30, 100);
+
+        // When
+        Optional<ProgressWriteBuffer.Heartbeat> result = buffer.record(1L, 10L, 50, 100);
+
+        // Then
+        assertThat(result).isPresent();
+        assertThat(result.get().position()).isEqualTo(80);
+        assertThat(result.get().percentage()).isEqualTo(80);
+    }
+
+    @Test
+    void shouldNotRewriteCleanSessions() {
+        // Given
+        buffer.open(1L, 10L, 0, false, 10, 100);
+        buffer.flush();
+
+        // When
+        buffer.flush();
+
+        // Then
+        verify(progressRepository, times(1)).batchUpsertProgress(anyCollection());
+        assertThat(buffer.peek(1L, 10L)).isPresent();
+    }
+
+    @Test
+    void shouldFlushSingleKeyBeforeSubmit() {
+        // Given
+        buffer.open(1L, 10L, 0, false, 100, 100);
+        buffer.open(2L, 10L, 0, false, 50, 100);
+
+        // When
+        buffer.flush(1L, 10L);
+
+        // Then
+        verify(progressRepository, times(1)).batchUpsertProgress(List.of(
+                new ProgressRepositoryCustom.ProgressUpsert(1L, 10L, 100, 100)));
+        verifyNoMoreInteractions(progressRepository);
+    }
+
+    @Test
+    void shouldPropagateSingleKeyFlushFailureAndRetryLater() {
+        // Given
+        buffer.open(1L, 10L, 0, false, 100, 100);
+        doThrow(new IllegalStateException("database down"))
+                .doNothing()
+                .when(progressRepository).batchUpsertProgress(anyCollection());
+
+        // When & Then: 交付請求應該失敗, 而不是在 rollback-only 的交易中繼續執行
+        assertThatThrownBy(() -> buffer.flush(1L, 10L))
+                .isInstanceOf(IllegalStateException.class);
+
+        // 仍保留為待寫入, 定期 flush 重試
+        buffer.flush();
+        verify(progressRepository, times(2)).batchUpsertProgress(List.of(
+                new ProgressRepositoryCustom.ProgressUpsert(1L, 10L, 100, 100)));
+    }
+
+    @Test
+    void shouldMergeBatchWrittenPositionWithoutMarkingDirty() {
+        // Given
+        buffer.open(1L, 10L, 0, false, 20, 100);
+        buffer.flush();
+
+        // When
+        buffer.merge(1L, 10L, 90, 100);
+        buffer.merge(2L, 10L, 90, 100);
+
+        // Then
+        assertThat(buffer.peek(1L, 10L)).get()
+                .extracting(ProgressWriteBuffer.Heartbeat::position)
+                .isEqualTo(90);
+        assertThat(buffer.peek(2L, 10L)).isEmpty();
+        buffer.flush();
+        verify(progressRepository, times(1)).batchUpsertProgress(anyCollection());
+    }
+
+    @Test
+    void shouldRewriteSingleKeyFlushWhenSubmitTransactionRollsBack() {
+        // Given: 交付前 flush 在交付的交易中寫入, 交付被拒絕後整個交易 rollback
+        buffer.open(1L, 10L, 0, false, 40, 100);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            buffer.flush(1L, 10L);
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // When
+        buffer.flush();
+
+        // Then: 被 rollback 的播放位置由定期 flush 重新寫入
+        verify(progressRepository, times(2)).batchUpsertProgress(List.of(
+                new ProgressRepositoryCustom.ProgressUpsert(1L, 10L, 40, 100)));
+    }
+
+    @Test
+    void shouldNotRewriteSingleKeyFlushWhenSubmitTransactionCommits() {
+        // Given
+        buffer.open(1L, 10L, 0, false, 100, 100);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            buffer.flush(1L, 10L);
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // When
+        buffer.flush();
+
+        // Then
+        verify(progressRepository, times(1)).batchUpsertProgress(anyCollection());
+    }
+}
@@ -1,9 +1,11 @@
 package com.waterball.lms.service;
 
+import com.waterball.lms.model.dto.CursorPage;
 import com.waterball.lms.model.dto.PurchaseDTO;
 import com.waterball.lms.model.entity.Course;
 import com.waterball.lms.model.entity.CoursePurchase;
 import com.waterball.lms.model.entity.User;
+import com.waterball.lms.model.event.CoursePurchasedEvent;
 import com.waterball.lms.repository.CoursePurchaseRepository;
 import com.waterball.lms.repository.CourseRepository;
 import com.waterball.lms.repository.UserRepository;
@@ -13,16 +15,22 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.LongStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
@@ -40,6 +48,12 @@ class PurchaseServiceTest {
     @Mock
     private CourseRepository courseRepository;
 
+    @Mock
+    private EntitlementCache entitlementCache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private PurchaseService purchaseService;
 
@@ -73,7 +87,7 @@ class PurchaseServiceTest {
     @Test
     void shouldPurchaseCourseSuccessfully() {
         // Given
-        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
         when(courseRepository.findById(2L)).thenReturn(Optional.of(premiumCourse));
         when(purchaseRepository.existsByUserIdAndCourseId(1L, 2L)).thenReturn(false);
 
@@ -89,7 +103,7 @@ class PurchaseServiceTest {
         when(purchaseRepository.save(any(CoursePurchase.class))).thenReturn(savedPurchase);
 
         // When
-        PurchaseDTO result = purchaseService.purchaseCourse("test@example.com", 2L);
+        PurchaseDTO result = purchaseService.purchaseCourse(1L, 2L);
 
         // Then
         assertThat(result).isNotNull();
@@ -100,17 +114,18 @@ class PurchaseServiceTest {
         assertThat(result.getTransactionId()).startsWith("MOCK-");
 
         verify(purchaseRepository).save(any(CoursePurchase.class));
+        verify(eventPublisher).publishEvent(new CoursePurchasedEvent(1L, 2L));
     }
 
     @Test
     void shouldThrowExceptionWhenPurchasingAlreadyPurchasedCourse() {
         // Given
-        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
         when(courseRepository.findById(2L)).thenReturn(Optional.of(premiumCourse));
         when(purchaseRepository.existsByUserIdAndCourseId(1L, 2L)).thenReturn(true);
 
         // When/Then
-        assertThatThrownBy(() -> purchaseService.purchaseCourse("test@example.com", 2L))
+        assertThatThrownBy(() -> purchaseService.purchaseCourse(1L, 2L))
                 .isInstanceOf(IllegalStateException.class)
                 .hasMessage("Course already purchased");
 
@@ -120,12 +135,12 @@ class PurchaseServiceTest {
     @Test
     void shouldThrowExceptionWhenPurchasingFreeCourse() {
         // Given
-        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
         when(courseRepository.findById(1L)).thenReturn(Optional.of(freeCourse));
         when(purchaseRepository.existsByUserIdAndCourseId(1L, 1L)).thenReturn(false);
 
         // When/Then
-        assertThatThrownBy(() -> purchaseService.purchaseCourse("test@example.com", 1L))
+        assertThatThrownBy(() -> purchaseService.purchaseCourse(1L, 1L))
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessage("Cannot purchase free course");
 
@@ -135,10 +150,10 @@ class PurchaseServiceTest {
     @Test
     void shouldThrowExceptionWhenUserNotFound() {
         // Given
-        when(userRepository.findByEmail("nonexistent@example.com")).thenReturn(Optional.empty());
+        when(userRepository.findById(99L)).thenReturn(Optional.empty());
 
         // When/Then
-        assertThatThrownBy(() -> purchaseService.purchaseCourse("nonexistent@example.com", 2L))
+        assertThatThrownBy(() -> purchaseService.purchaseCourse(99L, 2L))
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessage("User not found");
     }
@@ -146,11 +161,11 @@ class PurchaseServiceTest {
     @Test
     void shouldThrowExceptionWhenCourseNotFound() {
         // Given
-        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
         when(courseRepository.findById(999L)).thenReturn(Optional.empty());
 
         // When/Then
-        assertThatThrownBy(() -> purchaseService.purchaseCourse("test@example.com", 999L))
+        assertThatThrownBy(() -> purchaseService.purchaseCourse(1L, 999L))
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessage("Course not found");
     }
@@ -168,48 +183,49 @@ class PurchaseServiceTest {
     }
 
     @Test
-    void shouldReturnTrueForAccessToFreeCourse() {
+    void shouldDelegateAccessCheckToEntitlementCache() {
         // Given
-        when(courseRepository.findById(1L)).thenReturn(Optional.of(freeCourse));
+        when(entitlementCache.hasAccess(1L, 2L)).thenReturn(true);
 
         // When
-        boolean hasAccess = purchaseService.hasAccess(1L, 1L);
+        boolean hasAccess = purchaseService.hasAccess(1L, 2L);
 
         // Then
         assertThat(hasAccess).isTrue();
         verify(purchaseRepository, never()).existsByUserIdAndCourseId(any(), any());
+        verify(courseRepository, never()).findById(any());
     }
 
     @Test
-    void shouldReturnTrueForAccessToPurchasedPremiumCourse() {
+    void shouldCheckAccessForMultipleCoursesWithoutUserLookup() {
         // Given
-        when(courseRepository.findById(2L)).thenReturn(Optional.of(premiumCourse));
-        when(purchaseRepository.existsByUserIdAndCourseId(1L, 2L)).thenReturn(true);
+        when(entitlementCache.hasAccess(1L, List.of(1L, 2L))).thenReturn(Map.of(1L, true, 2L, false));
 
         // When
-        boolean hasAccess = purchaseService.hasAccess(1L, 2L);
+        Map<Long, Boolean> access = purchaseService.getAccess(1L, List.of(1L, 2L, 1L));
 
         // Then
-        assertThat(hasAccess).isTrue();
+        assertThat(access).containsEntry(1L, true).containsEntry(2L, false);
+        verifyNoInteractions(userRepository);
     }
 
     @Test
-    void shouldReturnFalseForAccessToUnpurchasedPremiumCourse() {
+    void shouldRejectTooManyCourseIdsInAccessCheck() {
         // Given
-        when(courseRepository.findById(2L)).thenReturn(Optional.of(premiumCourse));
-        when(purchaseRepository.existsByUserIdAndCourseId(1L, 2L)).thenReturn(false);
+        List<Long> courseIds = LongStream.rangeClosed(1, PurchaseService.MAX_ACCESS_CHECK_COURSES + 1)
+                .boxed()
+                .toList();
 
-        // When
-        boolean hasAccess = purchaseService.hasAccess(1L, 2L);
-
-        // Then
-        assertThat(hasAccess).isFalse();
+        // When/Then
+        assertThatThrownBy(() -> purchaseService.getAccess(1L, courseIds))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("Too many course IDs");
+        verify(entitlementCache, never()).hasAccess(any(), anyList());
     }
 
     @Test
     void shouldGetMyPurchases() {
         // Given
-        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
 
         CoursePurchase purchase1 = CoursePurchase.builder()
                 .id(1L)
@@ -241,7 +257,7 @@ class PurchaseServiceTest {
         when(purchaseRepository.findByUserId(1L)).thenReturn(Arrays.asList(purchase1, purchase2));
 
         // When
-        List<PurchaseDTO> purchases = purchaseService.getMyPurchases("test@example.com");
+        List<PurchaseDTO> purchases = purchaseService.getMyPurchases(1L);
 
         // Then
         assertThat(purchases).hasSize(2);
@@ -253,6 +269,56 @@ class PurchaseServiceTest {
                 .containsExactlyInAnyOrder("MOCK-1", "MOCK-2");
     }
 
+    @Test
+    void shouldPageMyPurchasesWithContinuationToken() {
+        // Given
+        LocalDateTime newest = LocalDateTime.of(2025, 1, 2, 10, 0);
+        LocalDateTime older = LocalDateTime.of(2025, 1, 1, 10, 0);
+        CoursePurchase purchase1 = CoursePurchase.builder()
+                .id(5L)
+                .user(testUser)
+                .course(premiumCourse)
+                .purchasePrice(new BigDecimal("2990.00"))
+                .purchaseDate(newest)
+                .paymentStatus(CoursePurchase.PaymentStatus.COMPLETED)
+                .transactionId("MOCK-5")
+                .build();
+        CoursePurchase purchase2 = CoursePurchase.builder()
+                .id(4L)
+                .user(testUser)
+                .course(premiumCourse)
+                .purchasePrice(new BigDecimal("2990.00"))
+                .purchaseDate(older)
+                .paymentStatus(CoursePurchase.PaymentStatus.COMPLETED)
+                .transactionId("MOCK-4")
+                .build();
+
+        when(purchaseRepository.findFirstPageByUserId(eq(1L), any(Pageable.class)))
+                .thenReturn(Arrays.asList(purchase1, purchase2));
+        when(purchaseRepository.findPageByUserIdAfter(eq(1L), eq(newest), eq(5L), any(Pageable.class)))
+                .thenReturn(List.of(purchase2));
+
+        // When
+        CursorPage<PurchaseDTO> first = purchaseService.getMyPurchasesPage(1L, null, 1);
+        CursorPage<PurchaseDTO> second = purchaseService.getMyPurchasesPage(1L, first.getNextCursor(), 1);
+
+        // Then
+        assertThat(first.getItems()).extracting(PurchaseDTO::getId).containsExactly(5L);
+        assertThat(first.getNextCursor()).isNotNull();
+        assertThat(second.getItems()).extracting(PurchaseDTO::getId).containsExactly(4L);
+        assertThat(second.getNextCursor()).isNull();
+    }
+
+    @Test
+    void shouldRejectInvalidPurchaseCursor() {
+        // Given
+
+        // When/Then
+        assertThatThrownBy(() -> purchaseService.getMyPurchasesPage(1L, "not-a-cursor", 10))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid cursor");
+    }
+
     @Test
     void shouldGetSpecificPurchase() {
         // Given
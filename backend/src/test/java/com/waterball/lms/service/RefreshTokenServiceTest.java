@@ -0,0 +1,240 @@
+package com.waterball.lms.service;
+
+import com.waterball.lms.model.dto.AuthResponse;
+import com.waterball.lms.model.entity.RefreshToken;
+import com.waterball.lms.model.entity.User;
+import com.waterball.lms.repository.RefreshTokenRepository;
+import com.waterball.lms.security.JwtTokenProvider;
+import com.waterball.lms.security.TokenClaims;
+import com.waterball.lms.security.TokenRevocationList;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for RefreshTokenService
+ */
+@ExtendWith(MockitoExtension.class)
+class RefreshTokenServiceTest {
+
+    private static final String SECRET = "test-secret-key-must-be-at-least-256-bits-long-for-HS256-algorithm-security-testing";
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Mock
+    private TokenRevocationList tokenRevocationList;
+
+    private JwtTokenProvider jwtTokenProvider;
+    private RefreshTokenService refreshTokenService;
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        jwtTokenProvider = new JwtTokenProvider(SECRET, 900000, 100);
+        refreshTokenService = new RefreshTokenService(refreshTokenRepository, jwtTokenProvider, tokenRevocationList,
+                1209600000L, 10000L);
+        testUser = User.builder()
+                .id(1L)
+                .email("test@example.com")
+                .displayName("Test User")
+                .role(User.Role.STUDENT)
+                .level(1)
+                .experience(0)
+                .isPremium(false)
+                .build();
+    }
+
+    @Test
+    void shouldIssueAccessTokenAndStoreOnlyRefreshTokenHash() {
+        // When
+        AuthResponse response = refreshTokenService.issue(testUser);
+
+        // Then
+        ArgumentCaptor<RefreshToken> saved = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(saved.capture());
+        assertThat(saved.getValue().getTokenHash())
+                .isEqualTo(RefreshTokenService.hash(response.getRefreshToken()))
+                .isNotEqualTo(response.getRefreshToken());
+        assertThat(saved.getValue().getExpiresAt()).isAfter(LocalDateTime.now().plusDays(13));
+        assertThat(response.getExpiresIn()).isEqualTo(900);
+
+        TokenClaims claims = jwtTokenProvider.verify(response.getAccessToken()).orElseThrow();
+        assertThat(claims.userId()).isEqualTo(1L);
+        assertThat(claims.sessionId()).isEqualTo(saved.getValue().getSessionId());
+    }
+
+    @Test
+    void shouldRotateRefreshTokenWithinSameSession() {
+        // Given
+        RefreshToken stored = storedToken("old-token", LocalDateTime.now().plusDays(1));
+        when(refreshTokenRepository.findByTokenHash(RefreshTokenService.hash("old-token"))).thenReturn(Optional.of(stored));
+        when(refreshTokenRepository.rotate(eq(10L), any())).thenReturn(1);
+
+        // When
+        AuthResponse response = refreshTokenService.refresh("old-token");
+
+        // Then
+        ArgumentCaptor<RefreshToken> saved = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(saved.capture());
+        assertThat(saved.getValue().getSessionId()).isEqualTo("session-1");
+        assertThat(response.getRefreshToken()).isNotEqualTo("old-token");
+        assertThat(jwtTokenProvider.verify(response.getAccessToken()).orElseThrow().sessionId()).isEqualTo("session-1");
+        verifyNoInteractions(tokenRevocationList);
+    }
+
+    @Test
+    void shouldRevokeSessionWhenRotatedTokenIsReusedAfterGraceWindow() {
+        // Given
+        RefreshToken stored = storedToken("old-token", LocalDateTime.now().plusDays(1));
+        stored.setRotatedAt(LocalDateTime.now().minusMinutes(1));
+        when(refreshTokenRepository.findByTokenHash(RefreshTokenService.hash("old-token"))).thenReturn(Optional.of(stored));
+
+        // When & Then
+        assertThatThrownBy(() -> refreshTokenService.refresh("old-token"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage(RefreshTokenService.INVALID_REFRESH_TOKEN);
+        verify(refreshTokenRepository).revokeSession(eq("session-1"), any());
+        verify(tokenRevocationList).revoke("session-1");
+        verify(refreshTokenRepository, never()).rotate(any(), any());
+        verify(refreshTokenRepository, never()).save(any());
+    }
+
+    @Test
+    void shouldRejectWithoutRevokingWhenRotatedTokenIsReusedWithinGraceWindow() {
+        // Given: 另一個分頁 2 秒前已換發
+        RefreshToken stored = storedToken("old-token", LocalDateTime.now().plusDays(1));
+        stored.setRotatedAt(LocalDateTime.now().minusSeconds(2));
+        when(refreshTokenRepository.findByTokenHash(RefreshTokenService.hash("old-token"))).thenReturn(Optional.of(stored));
+
+        // When & Then
+        assertThatThrownBy(() -> refreshTokenService.refresh("old-token"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage(RefreshTokenService.INVALID_REFRESH_TOKEN);
+        verify(refreshTokenRepository, never()).revokeSession(any(), any());
+        verifyNoInteractions(tokenRevocationList);
+    }
+
+    @Test
+    void shouldNotRevokeSessionOnConcurrentDoubleRefresh() {
+        // Given: 兩個分頁同時讀到尚未輪替的 token, 只有第一個的條件式更新成功
+        when(refreshTokenRepository.findByTokenHash(RefreshTokenService.hash("old-token")))
+                .thenAnswer(invocation -> Optional.of(storedToken("old-token", LocalDateTime.now().plusDays(1))));
+        when(refreshTokenRepository.rotate(eq(10L), any()))
+                .thenReturn(1)
+                .thenReturn(0);
+
+        // When
+        AuthResponse winner = refreshTokenService.refresh("old-token");
+
+        // Then
+        assertThatThrownBy(() -> refreshTokenService.refresh("old-token"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage(RefreshTokenService.INVALID_REFRESH_TOKEN);
+        assertThat(jwtTokenProvider.verify(winner.getAccessToken())).isPresent();
+        verify(refreshTokenRepository, never()).revokeSession(any(), any());
+        verifyNoInteractions(tokenRevocationList);
+        verify(refreshTokenRepository, times(1)).save(any());
+    }
+
+    @Test
+    void shouldRejectExpiredRefreshToken() {
+        // Given
+        RefreshToken stored = storedToken("old-token", LocalDateTime.now().minusMinutes(1));
+        when(refreshTokenRepository.findByTokenHash(RefreshTokenService.hash("old-token"))).thenReturn(Optional.of(stored));
+
+        // When & Then
+        assertThatThrownBy(() -> refreshTokenService.refresh("old-token"))
+                .isInstanceOf(IllegalArgumentException.class);
+        verify(refreshTokenRepository, never()).rotate(any(), any());
+    }
+
+    @Test
+    void shouldRejectUnknownRefreshToken() {
+        // Given
+        when(refreshTokenRepository.findByTokenHash(any())).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThatThrownBy(() -> refreshTokenService.refresh("unknown"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage(RefreshTokenService.INVALID_REFRESH_TOKEN);
+    }
+
+    @Test
+    void shouldRevokeSessionOnLogout() {
+        // Given
+        RefreshToken stored = storedToken("token", LocalDateTime.now().plusDays(1));
+        when(refreshTokenRepository.findByTokenHash(RefreshTokenService.hash("token"))).thenReturn(Optional.of(stored));
+
+        // When
+        refreshTokenService.revoke("token");
+
+        // Then
+        verify(refreshTokenRepository).revokeSession(eq("session-1"), any());
+        verify(tokenRevocationList).revoke("session-1");
+    }
+
+    @Test
+    void shouldUpdateRevocationListOnlyAfterCommit() {
+        // Given
+        RefreshToken stored = storedToken("token", LocalDateTime.now().plusDays(1));
+        when(refreshTokenRepository.findByTokenHash(RefreshTokenService.hash("token"))).thenReturn(Optional.of(stored));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // When
+            refreshTokenService.revoke("token");
+
+            // Then: commit 前不更新記憶體
+            verify(refreshTokenRepository).revokeSession(eq("session-1"), any());
+            verifyNoInteractions(tokenRevocationList);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(tokenRevocationList).revoke("session-1");
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void shouldNotUpdateRevocationListWhenCommitFails() {
+        // Given
+        RefreshToken stored = storedToken("token", LocalDateTime.now().plusDays(1));
+        when(refreshTokenRepository.findByTokenHash(RefreshTokenService.hash("token"))).thenReturn(Optional.of(stored));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // When
+            refreshTokenService.revoke("token");
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+            // Then
+            verifyNoInteractions(tokenRevocationList);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private RefreshToken storedToken(String token, LocalDateTime expiresAt) {
+        return RefreshToken.builder()
+                .id(10L)
+                .user(testUser)
+                .sessionId("session-1")
+                .tokenHash(RefreshTokenService.hash(token))
+                .expiresAt(expiresAt)
+                .build();
+    }
+}
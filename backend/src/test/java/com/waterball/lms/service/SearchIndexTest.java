@@ -0,0 +1,83 @@
+package com.waterball.lms.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for SearchIndex
+ */
+class SearchIndexTest {
+
+    private SearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new SearchIndex();
+        index.put("course:1", List.of(
+                new SearchIndex.Field("軟體設計模式精通之旅", 3.0),
+                new SearchIndex.Field("從實戰學習 Design Patterns", 1.5)));
+        index.put("lesson:1", List.of(
+                new SearchIndex.Field("Java 環境安裝", 3.0),
+                new SearchIndex.Field("本單元介紹設計模式之前的準備工作", 1.0)));
+        index.put("lesson:2", List.of(
+                new SearchIndex.Field("Spring Boot 實戰", 3.0),
+                new SearchIndex.Field("REST API 開發", 1.0)));
+    }
+
+    @Test
+    void shouldTokenizeCjkAsBigramsAndLatinAsWords() {
+        assertThat(SearchIndex.tokenize("設計模式 Java17"))
+                .containsExactly("設計", "計模", "模式", "java17");
+        assertThat(SearchIndex.tokenize("學")).containsExactly("學");
+        assertThat(SearchIndex.tokenize("ＡＰＩ")).containsExactly("api");
+    }
+
+    @Test
+    void shouldRankTitleMatchAboveContentMatch() {
+        // When
+        List<SearchIndex.Hit> hits = index.search("設計模式", 10);
+
+        // Then
+        assertThat(hits).extracting(SearchIndex.Hit::key).containsExactly("course:1", "lesson:1");
+    }
+
+    @Test
+    void shouldMatchLatinWordsCaseInsensitively() {
+        assertThat(index.search("spring", 10)).extracting(SearchIndex.Hit::key).containsExactly("lesson:2");
+        assertThat(index.search("PATTERNS", 10)).extracting(SearchIndex.Hit::key).containsExactly("course:1");
+    }
+
+    @Test
+    void shouldReplaceAndRemoveDocuments() {
+        // When
+        index.put("lesson:2", List.of(new SearchIndex.Field("Kotlin 入門", 3.0)));
+        index.remove("course:1");
+
+        // Then
+        assertThat(index.search("spring", 10)).isEmpty();
+        assertThat(index.search("kotlin", 10)).extracting(SearchIndex.Hit::key).containsExactly("lesson:2");
+        assertThat(index.search("設計模式", 10)).extracting(SearchIndex.Hit::key).containsExactly("lesson:1");
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldLimitResults() {
+        assertThat(index.search("設計模式", 1)).hasSize(1);
+        assertThat(index.search("   ", 10)).isEmpty();
+    }
+
+    @Test
+    void shouldMatchSingleCjkCharacterInsideLongerWords() {
+        // When
+        List<SearchIndex.Hit> hits = index.search("設", 10);
+
+        // Then: 「設計」中的「設」也能被單字查詢找到, 標題符合排在前面
+        assertThat(hits).extracting(SearchIndex.Hit::key).containsExactly("course:1", "lesson:1");
+        assertThat(index.search("學", 10)).extracting(SearchIndex.Hit::key).containsExactly("course:1");
+        assertThat(index.search("貓", 10)).isEmpty();
+    }
+}
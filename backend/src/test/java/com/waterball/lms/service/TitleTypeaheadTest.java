@@ -0,0 +1,69 @@
+package com.waterball.lms.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for TitleTypeahead
+ */
+class TitleTypeaheadTest {
+
+    private TitleTypeahead typeahead;
+
+    @BeforeEach
+    void setUp() {
+        // 依排名排序
+        typeahead = TitleTypeahead.build(List.of(
+                new TitleTypeahead.Suggestion("COURSE", 1L, 1L, "Spring Boot 實戰"),
+                new TitleTypeahead.Suggestion("COURSE", 2L, 2L, "軟體設計模式精通之旅"),
+                new TitleTypeahead.Suggestion("LESSON", 10L, 1L, "Spring Security 入門"),
+                new TitleTypeahead.Suggestion("LESSON", 11L, 1L, "Spring Data JPA"),
+                new TitleTypeahead.Suggestion("LESSON", 20L, 2L, "軟體架構概論")
+        ), 2);
+    }
+
+    @Test
+    void shouldReturnTopKInRankOrder() {
+        assertThat(typeahead.suggest("spr", 10))
+                .extracting(TitleTypeahead.Suggestion::id)
+                .containsExactly(1L, 10L);
+    }
+
+    @Test
+    void shouldMatchWordStartsInsideTitle() {
+        assertThat(typeahead.suggest("BOOT", 10))
+                .extracting(TitleTypeahead.Suggestion::id)
+                .containsExactly(1L);
+        assertThat(typeahead.suggest("jpa", 10))
+                .extracting(TitleTypeahead.Suggestion::id)
+                .containsExactly(11L);
+    }
+
+    @Test
+    void shouldMatchCjkPrefixes() {
+        assertThat(typeahead.suggest("軟體", 10))
+                .extracting(TitleTypeahead.Suggestion::id)
+                .containsExactly(2L, 20L);
+        assertThat(typeahead.suggest("軟體架", 10))
+                .extracting(TitleTypeahead.Suggestion::id)
+                .containsExactly(20L);
+    }
+
+    @Test
+    void shouldReturnEmptyForUnknownOrBlankPrefix() {
+        assertThat(typeahead.suggest("kotlin", 10)).isEmpty();
+        assertThat(typeahead.suggest("  ", 10)).isEmpty();
+        assertThat(TitleTypeahead.empty().suggest("spring", 10)).isEmpty();
+    }
+
+    @Test
+    void shouldHonorLimit() {
+        assertThat(typeahead.suggest("spring", 1))
+                .extracting(TitleTypeahead.Suggestion::id)
+                .containsExactly(1L);
+    }
+}
@@ -0,0 +1,157 @@
+package com.waterball.lms.service;
+
+import com.waterball.lms.model.dto.UserDTO;
+import com.waterball.lms.model.entity.User;
+import com.waterball.lms.model.event.UserProfileChangedEvent;
+import com.waterball.lms.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for UserProfileCache
+ */
+@ExtendWith(MockitoExtension.class)
+class UserProfileCacheTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private UserProfileCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new UserProfileCache(userRepository, meterRegistry, 2, 60000);
+    }
+
+    @Test
+    void shouldLoadOnceAndCountHitsAndMisses() {
+        // Given
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user(1L, 100)));
+
+        // When
+        UserDTO first = cache.get(1L).orElseThrow();
+        UserDTO second = cache.get(1L).orElseThrow();
+
+        // Then
+        assertThat(second.getExperience()).isEqualTo(100);
+        assertThat(second).isNotSameAs(first);
+        verify(userRepository, times(1)).findById(1L);
+        assertThat(count("hit")).isEqualTo(1);
+        assertThat(count("miss")).isEqualTo(1);
+    }
+
+    @Test
+    void shouldReloadAfterProfileChanged() {
+        // Given
+        when(userRepository.findById(1L))
+                .thenReturn(Optional.of(user(1L, 100)))
+                .thenReturn(Optional.of(user(1L, 300)));
+        cache.get(1L);
+
+        // When
+        cache.onUserProfileChanged(new UserProfileChangedEvent(1L));
+
+        // Then
+        assertThat(cache.get(1L)).get().extracting(UserDTO::getExperience).isEqualTo(300);
+        verify(userRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    void shouldNotKeepEntriesPastTtl() {
+        // Given
+        UserProfileCache expiring = new UserProfileCache(userRepository, meterRegistry, 2, 0);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user(1L, 100)));
+
+        // When
+        expiring.get(1L);
+        expiring.get(1L);
+
+        // Then
+        verify(userRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedWhenFull() {
+        // Given
+        when(userRepository.findById(anyLong())).thenAnswer(invocation ->
+                Optional.of(user(invocation.getArgument(0), 0)));
+        cache.get(1L);
+        cache.get(2L);
+
+        // When
+        cache.get(3L);
+
+        // Then
+        assertThat(cache.size()).isEqualTo(2);
+        cache.get(1L);
+        verify(userRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    void shouldNotCacheMissingUser() {
+        // Given
+        when(userRepository.findById(99L)).thenReturn(Optional.empty());
+
+        // When/Then
+        assertThat(cache.get(99L)).isEmpty();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void shouldNotCacheProfileInvalidatedWhileLoading() {
+        // Given
+        when(userRepository.findById(1L)).thenAnswer(invocation -> {
+            cache.invalidate(1L);
+            return Optional.of(user(1L, 100));
+        });
+
+        // When
+        cache.get(1L);
+
+        // Then
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void shouldCacheProfileWhenAnotherUserIsInvalidatedWhileLoading() {
+        // Given
+        when(userRepository.findById(1L)).thenAnswer(invocation -> {
+            cache.invalidate(2L);
+            return Optional.of(user(1L, 100));
+        });
+
+        // When
+        cache.get(1L);
+        cache.get(1L);
+
+        // Then
+        assertThat(cache.size()).isEqualTo(1);
+        verify(userRepository, times(1)).findById(1L);
+    }
+
+    private double count(String result) {
+        return meterRegistry.get("user.profile.cache.requests").tag("result", result).counter().count();
+    }
+
+    private static User user(Long id, int experience) {
+        return User.builder()
+                .id(id)
+                .email("user" + id + "@example.com")
+                .role(User.Role.STUDENT)
+                .level(1)
+                .experience(experience)
+                .isPremium(false)
+                .build();
+    }
+}
@@ -11,6 +11,7 @@ import { createContext, useContext, useState, useEffect, ReactNode } from 'react
 import { User, UserRole, Occupation } from '@/types/user'
 import * as authApi from '@/lib/api/auth'
 import { getCurrentUser } from '@/lib/api/users'
+import { clearAuthTokens, getRefreshToken, setAuthTokens } from '@/lib/api/client'
 
 interface AuthContextType {
   user: User | null
@@ -59,8 +60,8 @@ export function AuthProvider({ children }: { children: ReactNode }) {
       try {
         const accessToken = localStorage.getItem('accessToken')
 
-        if (accessToken) {
-          // 嘗試使用 token 取得用戶資訊
+        if (accessToken || getRefreshToken()) {
+          // 嘗試使用 token 取得用戶資訊（access token 過期時 apiClient 會以 refresh token 換發）
           try {
             const response = await getCurrentUser()
             if (response.success && response.data) {
@@ -68,11 +69,11 @@ export function AuthProvider({ children }: { children: ReactNode }) {
               setUser(mappedUser)
             } else {
               // Token 無效，清除
-              localStorage.removeItem('accessToken')
+              clearAuthTokens()
             }
           } catch (err) {
             // Token 過期或無效
-            localStorage.removeItem('accessToken')
+            clearAuthTokens()
             console.error('Failed to get current user:', err)
           }
         }
@@ -97,17 +98,15 @@ export function AuthProvider({ children }: { children: ReactNode }) {
       const response = await authApi.login(email, password)
 
       if (response.success && response.data) {
-        // Backend AuthResponse has { accessToken, tokenType, user: UserDTO }
-        const backendData = response.data as any
-        const backendUser = backendData.user
-        const accessToken = backendData.accessToken
+        // Backend AuthResponse has { accessToken, tokenType, expiresIn, refreshToken, user: UserDTO }
+        const { accessToken, refreshToken, expiresIn, user: backendUser } = response.data
 
         // 轉換用戶資料
         const mappedUser = mapBackendUserToFrontend(backendUser)
         setUser(mappedUser)
 
-        // 儲存 JWT token
-        localStorage.setItem('accessToken', accessToken)
+        // 儲存 JWT token 與 refresh token（過期時由 apiClient 自動換發）
+        setAuthTokens(accessToken, refreshToken, expiresIn)
       } else {
         throw new Error(response.error?.message || '登入失敗')
       }
@@ -132,17 +131,15 @@ export function AuthProvider({ children }: { children: ReactNode }) {
       const response = await authApi.register(email, password, displayName)
 
       if (response.success && response.data) {
-        // Backend AuthResponse has { accessToken, tokenType, user: UserDTO }
-        const backendData = response.data as any
-        const backendUser = backendData.user
-        const accessToken = backendData.accessToken
+        // Backend AuthResponse has { accessToken, tokenType, expiresIn, refreshToken, user: UserDTO }
+        const { accessToken, refreshToken, expiresIn, user: backendUser } = response.data
 
         // 轉換用戶資料
         const mappedUser = mapBackendUserToFrontend(backendUser)
         setUser(mappedUser)
 
-        // 儲存 JWT token
-        localStorage.setItem('accessToken', accessToken)
+        // 儲存 JWT token 與 refresh token（過期時由 apiClient 自動換發）
+        setAuthTokens(accessToken, refreshToken, expiresIn)
       } else {
         throw new Error(response.error?.message || '註冊失敗')
       }
@@ -162,17 +159,18 @@ export function AuthProvider({ children }: { children: ReactNode }) {
   const logout = async () => {
     setIsLoading(true)
     try {
+      // 撤銷後端 session
       await authApi.logout()
 
       // 清除狀態
       setUser(null)
       setError(null)
-      localStorage.removeItem('accessToken')
+      clearAuthTokens()
     } catch (error) {
       console.error('Logout failed:', error)
       // 即使 API 失敗也要清除本地狀態
       setUser(null)
-      localStorage.removeItem('accessToken')
+      clearAuthTokens()
     } finally {
       setIsLoading(false)
     }
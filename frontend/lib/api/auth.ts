@@ -5,7 +5,7 @@
  * R2: 串接真實後端 API
  */
 
-import { apiClient } from './client'
+import { apiClient, getRefreshToken } from './client'
 import { LoginRequest, LogoutResponse, RegisterRequest } from '@/types/api'
 import { AuthResponse } from '@/types/backend'
 import { ApiResponse } from '@/types/api'
@@ -43,15 +43,19 @@ export async function register(
 
 /**
  * 登出
+ * 撤銷 refresh token 所屬的 session（該 session 的 access token 一併失效）
  */
 export async function logout(): Promise<LogoutResponse> {
-  // R2: 真實 API 呼叫（如果後端有登出端點）
-  // 目前後端沒有登出 API，前端只需清除 token
-  return {
-    success: true,
-    data: undefined,
-    timestamp: Date.now(),
+  const refreshToken = getRefreshToken()
+  if (!refreshToken) {
+    return {
+      success: true,
+      data: undefined,
+      timestamp: Date.now(),
+    }
   }
+
+  return apiClient.post<void>('/auth/logout', { refreshToken })
 }
 
 /**
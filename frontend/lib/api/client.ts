@@ -30,6 +30,18 @@ interface RequestConfig {
   params?: Record<string, string | number | boolean>
 }
 
+/**
+ * localStorage keys
+ */
+const ACCESS_TOKEN_KEY = 'accessToken'
+const REFRESH_TOKEN_KEY = 'refreshToken'
+const ACCESS_TOKEN_EXPIRES_AT_KEY = 'accessTokenExpiresAt'
+
+/**
+ * access token 到期前多久主動換發 (毫秒)
+ */
+const REFRESH_MARGIN_MS = 30 * 1000
+
 /**
  * API 錯誤類
  */
@@ -73,11 +85,109 @@ function buildUrl(path: string, params?: Record<string, string | number | boolea
 function getAuthToken(): string | null {
   // R1: 從 localStorage 讀取
   if (typeof window !== 'undefined') {
-    return localStorage.getItem('accessToken')
+    return localStorage.getItem(ACCESS_TOKEN_KEY)
+  }
+  return null
+}
+
+/**
+ * 獲取 Refresh Token
+ */
+export function getRefreshToken(): string | null {
+  if (typeof window !== 'undefined') {
+    return localStorage.getItem(REFRESH_TOKEN_KEY)
   }
   return null
 }
 
+/**
+ * 儲存登入/換發後的 Token
+ * @param expiresIn access token 有效秒數
+ */
+export function setAuthTokens(accessToken: string, refreshToken: string, expiresIn?: number): void {
+  if (typeof window === 'undefined') return
+  localStorage.setItem(ACCESS_TOKEN_KEY, accessToken)
+  localStorage.setItem(REFRESH_TOKEN_KEY, refreshToken)
+  if (expiresIn) {
+    localStorage.setItem(ACCESS_TOKEN_EXPIRES_AT_KEY, String(Date.now() + expiresIn * 1000))
+  } else {
+    localStorage.removeItem(ACCESS_TOKEN_EXPIRES_AT_KEY)
+  }
+}
+
+/**
+ * 清除所有 Token（登出或換發失敗）
+ */
+export function clearAuthTokens(): void {
+  if (typeof window === 'undefined') return
+  localStorage.removeItem(ACCESS_TOKEN_KEY)
+  localStorage.removeItem(REFRESH_TOKEN_KEY)
+  localStorage.removeItem(ACCESS_TOKEN_EXPIRES_AT_KEY)
+}
+
+/**
+ * access token 是否即將到期
+ * 公開 API 收到過期 token 時視為未登入（不會回 401），因此到期前先換發
+ */
+function isAccessTokenExpiring(): boolean {
+  if (typeof window === 'undefined') return false
+  const expiresAt = Number(localStorage.getItem(ACCESS_TOKEN_EXPIRES_AT_KEY))
+  return expiresAt > 0 && Date.now() >= expiresAt - REFRESH_MARGIN_MS
+}
+
+/**
+ * 進行中的換發請求，同一頁面的並行請求共用同一次換發
+ */
+let refreshPromise: Promise<boolean> | null = null
+
+/**
+ * 以 refresh token 換發 access token
+ * @returns 是否取得可用的新 token
+ */
+function refreshAccessToken(): Promise<boolean> {
+  if (!refreshPromise) {
+    refreshPromise = doRefresh().finally(() => {
+      refreshPromise = null
+    })
+  }
+  return refreshPromise
+}
+
+async function doRefresh(): Promise<boolean> {
+  const refreshToken = getRefreshToken()
+  if (!refreshToken) return false
+
+  try {
+    const response = await fetch(buildUrl('/auth/refresh'), {
+      method: 'POST',
+      headers: { 'Content-Type': 'application/json' },
+      body: JSON.stringify({ refreshToken }),
+    })
+    if (response.ok) {
+      const data = await response.json()
+      setAuthTokens(data.accessToken, data.refreshToken, data.expiresIn)
+      return true
+    }
+  } catch (error) {
+    console.error('Token refresh failed:', error)
+    return false
+  }
+
+  // 其他分頁已先換發（同一個 refresh token 只能用一次），改用其儲存的新 token
+  if (getRefreshToken() !== refreshToken) {
+    return getAuthToken() !== null
+  }
+  clearAuthTokens()
+  return false
+}
+
+/**
+ * 登入/註冊/換發/登出本身不觸發換發（帳密錯誤、refresh token 無效都會回錯誤）
+ */
+function isAuthPath(path: string): boolean {
+  return /^\/?auth\/(login|register|refresh|logout)$/.test(path)
+}
+
 /**
  * 建立請求標頭
  */
@@ -145,20 +255,34 @@ async function request<T>(
 ): Promise<ApiResponse<T>> {
   try {
     const url = buildUrl(path, config.params)
-    const headers = buildHeaders(config.headers)
+    const canRefresh = !isAuthPath(path) && getRefreshToken() !== null
 
-    const fetchConfig: RequestInit = {
-      method: config.method,
-      headers,
+    if (canRefresh && isAccessTokenExpiring()) {
+      await refreshAccessToken()
     }
 
-    // 加入 body（GET 和 DELETE 不需要）
-    if (config.body && config.method !== 'GET' && config.method !== 'DELETE') {
-      fetchConfig.body = JSON.stringify(config.body)
+    const send = () => {
+      const fetchConfig: RequestInit = {
+        method: config.method,
+        headers: buildHeaders(config.headers),
+      }
+
+      // 加入 body（GET 和 DELETE 不需要）
+      if (config.body && config.method !== 'GET' && config.method !== 'DELETE') {
+        fetchConfig.body = JSON.stringify(config.body)
+      }
+
+      return fetch(url, fetchConfig)
     }
 
     // R2: 發送真實請求
-    const response = await fetch(url, fetchConfig)
+    let response = await send()
+
+    // access token 過期: 換發後重試一次
+    if (response.status === 401 && canRefresh && (await refreshAccessToken())) {
+      response = await send()
+    }
+
     return handleResponse<T>(response)
   } catch (error) {
     // 網路錯誤或其他異常
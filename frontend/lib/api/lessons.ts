@@ -33,6 +33,11 @@ export async function getLesson(lessonId: number): Promise<GetLessonResponse> {
     // Transform backend LessonDTO to frontend Lesson type
     const lesson = convertLessonDTOToLesson(response.data)
 
+    // 文章單元的內容不在 LessonDTO 中，另外載入（瀏覽器以 gzip 傳輸）
+    if (response.data.type === 'SCROLL') {
+      lesson.content = await getLessonContent(lessonId)
+    }
+
     return {
       success: true,
       data: lesson,
@@ -52,4 +57,14 @@ export async function getLesson(lessonId: number): Promise<GetLessonResponse> {
   }
 }
 
+/**
+ * 獲取單元文章內容（Markdown）
+ * GET /api/courses/lessons/{lessonId}/content
+ * 後端直接回傳 gzip 儲存的內容，由瀏覽器解壓縮
+ */
+export async function getLessonContent(lessonId: number): Promise<string> {
+  const response = await apiClient.get<string>(`/courses/lessons/${lessonId}/content`)
+  return response.data || ''
+}
+
 // Note: updateProgress, submitLesson, completeLesson functions are in lib/api/progress.ts
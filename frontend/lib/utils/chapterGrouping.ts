@@ -208,7 +208,6 @@ export function groupLessonsIntoChapters(
     type: (lesson.type?.toUpperCase() as 'VIDEO' | 'SCROLL' | 'GOOGLE_FORM') || 'VIDEO',
     videoUrl: lesson.videoUrl || null,
     videoDuration: lesson.videoDuration || null,
-    content: lesson.content || '',
     displayOrder: lesson.displayOrder || lesson.order || 0,
     experienceReward: lesson.experienceReward || lesson.reward?.exp || 0,
     progressPercentage: lesson.progressPercentage || 0,
@@ -29,7 +29,6 @@ export function convertLessonDTOToLesson(
     videoUrl: dto.videoUrl || undefined,
     videoDuration: dto.videoDuration || undefined,
     videoLength: formatVideoDuration(dto.videoDuration), // Formatted for display
-    content: dto.content,
     displayOrder: dto.displayOrder,
     order: dto.displayOrder, // Backward compatibility
     experienceReward: dto.experienceReward,
@@ -32,7 +32,6 @@ export interface LessonDTO {
   type: 'VIDEO' | 'SCROLL' | 'GOOGLE_FORM'
   videoUrl: string | null
   videoDuration: number | null
-  content: string
   displayOrder: number
   experienceReward: number
 
@@ -78,6 +77,8 @@ export interface UserDTO {
 export interface AuthResponse {
   accessToken: string
   tokenType: string
+  expiresIn: number // access token 有效秒數
+  refreshToken: string
   user: UserDTO
 }
 